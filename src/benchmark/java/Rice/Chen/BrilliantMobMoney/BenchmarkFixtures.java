@@ -0,0 +1,167 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+final class BenchmarkFixtures {
+    static final EntityType[] KILL_MIX = {
+        EntityType.ZOMBIE, EntityType.SKELETON, EntityType.CREEPER, EntityType.SPIDER,
+        EntityType.ENDERMAN, EntityType.WITCH, EntityType.PIG, EntityType.COW
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static ConfigManager.MobConfig[] rewardTable() {
+        ConfigManager.MobConfig[] table = new ConfigManager.MobConfig[EntityType.values().length];
+        for (int i = 0; i < KILL_MIX.length; i++) {
+            EntityType type = KILL_MIX[i];
+            String displayName = type.name().toLowerCase();
+            table[type.ordinal()] = new ConfigManager.MobConfig(true, 1.0 + i, 10.0 + i, 100.0, "1-3", 1, 3, true,
+                displayName, MessageTemplate.compile(
+                    ConfigManager.DEFAULT_REWARD_MESSAGE.replace("%mob%", displayName), "%amount%"));
+        }
+        return table;
+    }
+
+    static Path copyResource(String resource, Path workFolder) throws IOException {
+        Path target = workFolder.resolve(resource);
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("找不到內建設定檔：" + resource);
+            }
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    // 只擊殺設定檔中有設定的生物，沒有任何設定時退回預設組合
+    static EntityType[] killMix(ConfigManager configManager) {
+        List<EntityType> configured = new ArrayList<>();
+        for (EntityType type : EntityType.values()) {
+            if (configManager.getRewardConfig(type) != null) {
+                configured.add(type);
+            }
+        }
+        return configured.isEmpty() ? KILL_MIX : configured.toArray(new EntityType[0]);
+    }
+
+    static Economy economy() {
+        EconomyResponse success = new EconomyResponse(0, 0, EconomyResponse.ResponseType.SUCCESS, null);
+        return (Economy) Proxy.newProxyInstance(Economy.class.getClassLoader(), new Class<?>[]{Economy.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "depositPlayer" -> success;
+                case "getName" -> "Benchmark";
+                case "isEnabled" -> true;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    static Economy economy(long latencyNanos, double failureRate, LongAdder calls, LongAdder failures) {
+        EconomyResponse success = new EconomyResponse(0, 0, EconomyResponse.ResponseType.SUCCESS, null);
+        EconomyResponse failure = new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "simulated");
+        return (Economy) Proxy.newProxyInstance(Economy.class.getClassLoader(), new Class<?>[]{Economy.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "depositPlayer" -> {
+                    calls.increment();
+                    if (latencyNanos > 0) {
+                        LockSupport.parkNanos(latencyNanos);
+                    }
+                    if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                        failures.increment();
+                        yield failure;
+                    }
+                    yield success;
+                }
+                case "getName" -> "Simulator";
+                case "isEnabled" -> true;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    static OfflinePlayer player(UUID uuid) {
+        return (OfflinePlayer) Proxy.newProxyInstance(OfflinePlayer.class.getClassLoader(),
+            new Class<?>[]{OfflinePlayer.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> uuid;
+                case "getName" -> "Benchmark";
+                case "isOnline" -> true;
+                case "hashCode" -> uuid.hashCode();
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    static MetricsManager metricsManager() throws IOException {
+        Path folder = Files.createTempDirectory("bmm-benchmark");
+        return new MetricsManager(new MetricsLog(Logger.getLogger("BrilliantMobMoney-Benchmark"), folder, () -> 1, false));
+    }
+
+    static Player onlinePlayer(UUID uuid, String name) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> uuid;
+                case "getName" -> name;
+                case "isOnline" -> true;
+                case "hashCode" -> uuid.hashCode();
+                case "equals" -> proxy == args[0];
+                case "toString" -> name;
+                default -> null;
+            });
+    }
+
+    static World world(UUID uuid) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUID" -> uuid;
+                case "getName" -> "world";
+                case "hashCode" -> uuid.hashCode();
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    static final class MutableKill {
+        EntityType type;
+        Player killer;
+        UUID uuid;
+        Location location;
+
+        final LivingEntity entity = (LivingEntity) Proxy.newProxyInstance(LivingEntity.class.getClassLoader(),
+            new Class<?>[]{LivingEntity.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getType" -> type;
+                case "getKiller" -> killer;
+                case "getUniqueId" -> uuid;
+                case "getEntityId" -> uuid.hashCode();
+                case "getLocation" -> location;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+}
@@ -0,0 +1,160 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KillStreamBenchmark {
+    private static final int FOLIA_REGION_THREADS = 8;
+    private static final int CHUNK_SPREAD = 64;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        private final AtomicLong threadIds = new AtomicLong();
+        private final World world = BenchmarkFixtures.world(UUID.randomUUID());
+        RecentEntityTable recentlyProcessed;
+        MetricsManager metricsManager;
+        StandInDispatcher dispatcher;
+        RewardPipeline pipeline;
+        EntityType[] killMix;
+
+        @Setup
+        public void setup() throws IOException {
+            Logger logger = Logger.getLogger("BrilliantMobMoney-Benchmark");
+            Path workFolder = Files.createTempDirectory("bmm-benchmark");
+            ConfigManager configManager = new ConfigManager(logger,
+                BenchmarkFixtures.copyResource("config.yml", workFolder).toFile(),
+                BenchmarkFixtures.copyResource("entity.yml", workFolder).toFile());
+
+            recentlyProcessed = new RecentEntityTable(10000, 100);
+            metricsManager = BenchmarkFixtures.metricsManager();
+            dispatcher = new StandInDispatcher(FOLIA_REGION_THREADS, true);
+            pipeline = new RewardPipeline(logger, workFolder, configManager, dispatcher, metricsManager,
+                BenchmarkFixtures.economy(), true, dispatcher.regionCount());
+            pipeline.scheduleMaintenance();
+            killMix = BenchmarkFixtures.killMix(configManager);
+        }
+
+        // 每輪結束時等待經濟與訊息工作清空，避免積壓的工作拖慢下一輪
+        @TearDown(Level.Iteration)
+        public void settle() throws InterruptedException {
+            RewardQueue rewardQueue = pipeline.getRewardQueue();
+            dispatcher.awaitQuiescence(30, TimeUnit.SECONDS, () -> rewardQueue != null && rewardQueue.size() > 0);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pipeline.close();
+            dispatcher.shutdown();
+            metricsManager.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Region {
+        final BenchmarkFixtures.MutableKill kill = new BenchmarkFixtures.MutableKill();
+        final Location[] locations = new Location[CHUNK_SPREAD];
+        Player killer;
+        long entityBits;
+        long entitySequence;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(Server server) {
+            entityBits = server.threadIds.incrementAndGet() << 32;
+            killer = BenchmarkFixtures.onlinePlayer(new UUID(entityBits, 0), "Bench" + (entityBits >>> 32));
+            for (int i = 0; i < locations.length; i++) {
+                locations[i] = new Location(server.world, ((entityBits >>> 32) * CHUNK_SPREAD + i) * 16 + 8, 64, 8);
+            }
+        }
+
+        UUID nextEntity() {
+            return new UUID(entityBits, ++entitySequence);
+        }
+
+        EntityType nextType() {
+            return BenchmarkFixtures.KILL_MIX[next++ & (BenchmarkFixtures.KILL_MIX.length - 1)];
+        }
+
+        // 模擬區域執行緒上的一次擊殺，實體物件重複使用以免配置干擾量測
+        BenchmarkFixtures.MutableKill nextKill(EntityType[] killMix) {
+            int index = next++;
+            kill.type = killMix[Math.floorMod(index, killMix.length)];
+            kill.killer = killer;
+            kill.uuid = nextEntity();
+            kill.location = locations[index & (CHUNK_SPREAD - 1)];
+            return kill;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean markProcessed(Server server, Region region) {
+        return server.recentlyProcessed.markProcessed(region.nextEntity());
+    }
+
+    @Benchmark
+    @Threads(FOLIA_REGION_THREADS)
+    public boolean markProcessedContended(Server server, Region region) {
+        return server.recentlyProcessed.markProcessed(region.nextEntity());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long recordMetrics(Server server, Region region) {
+        return recordMetrics(server.metricsManager, region.nextType());
+    }
+
+    @Benchmark
+    @Threads(FOLIA_REGION_THREADS)
+    public long recordMetricsContended(Server server, Region region) {
+        return recordMetrics(server.metricsManager, region.nextType());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void killStream(Server server, Region region) {
+        server.pipeline.handleDeath(region.nextKill(server.killMix).entity);
+    }
+
+    @Benchmark
+    @Threads(FOLIA_REGION_THREADS)
+    public void killStreamContended(Server server, Region region) {
+        server.pipeline.handleDeath(region.nextKill(server.killMix).entity);
+    }
+
+    private static long recordMetrics(MetricsManager metricsManager, EntityType type) {
+        long startTime = metricsManager.startTracking();
+        metricsManager.recordKillSeen(type);
+        long phaseTime = metricsManager.recordPhase(RewardPhase.FILTER, type, startTime);
+        metricsManager.endTracking(startTime);
+        return phaseTime;
+    }
+}
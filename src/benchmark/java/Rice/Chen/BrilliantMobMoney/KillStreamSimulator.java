@@ -0,0 +1,299 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+public final class KillStreamSimulator {
+    private static final int CHUNK_SPREAD = 64;
+
+    private final Options options;
+    private final StandInDispatcher dispatcher;
+    private final RewardPipeline pipeline;
+    private final MetricsManager metrics;
+    private final Player[] players;
+    private final World world = BenchmarkFixtures.world(UUID.randomUUID());
+    private final EntityType[] killMix;
+    private final BenchmarkFixtures.MutableKill[] kills;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder economyCalls = new LongAdder();
+    private final LongAdder economyFailures = new LongAdder();
+
+    private KillStreamSimulator(Options options) throws IOException {
+        this.options = options;
+        Logger logger = Logger.getLogger("BrilliantMobMoney-Simulator");
+        Path workFolder = Files.createTempDirectory("bmm-simulator");
+
+        ConfigManager configManager = new ConfigManager(logger,
+            resolveConfig(options.config, "config.yml", workFolder).toFile(),
+            resolveConfig(options.entities, "entity.yml", workFolder).toFile());
+        this.metrics = new MetricsManager(new MetricsLog(logger, workFolder.resolve("metrics"), () -> 1, false));
+        this.dispatcher = new StandInDispatcher(options.regions, options.folia);
+
+        Economy economy = BenchmarkFixtures.economy(TimeUnit.MICROSECONDS.toNanos(options.economyLatencyMicros),
+            options.economyFailure, economyCalls, economyFailures);
+        this.pipeline = new RewardPipeline(logger, workFolder, configManager, dispatcher, metrics, economy,
+            options.folia || configManager.isAsyncEconomy(), dispatcher.regionCount());
+
+        this.players = new Player[options.players];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = BenchmarkFixtures.onlinePlayer(new UUID(i, ThreadLocalRandom.current().nextLong()), "Sim" + i);
+        }
+
+        this.killMix = BenchmarkFixtures.killMix(configManager);
+
+        this.kills = new BenchmarkFixtures.MutableKill[dispatcher.regionCount()];
+        for (int i = 0; i < kills.length; i++) {
+            kills[i] = new BenchmarkFixtures.MutableKill();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        KillStreamSimulator simulator = new KillStreamSimulator(options);
+        simulator.run();
+    }
+
+    private void run() throws Exception {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        System.gc();
+        long heapBefore = heapUsed();
+        long[] gcBefore = gcTotals();
+
+        System.out.printf("模擬開始：模式=%s, 區域=%d, 玩家=%d, 實體種類=%d%n",
+            options.folia ? "folia" : "paper", dispatcher.regionCount(), players.length, killMix.length);
+
+        pipeline.scheduleMaintenance();
+        long start = System.nanoTime();
+        List<Thread> drivers = new ArrayList<>();
+        if (options.replay != null) {
+            drivers.add(startDriver("Replay", this::replay));
+        } else {
+            for (int region = 0; region < dispatcher.regionCount(); region++) {
+                int driverRegion = region;
+                drivers.add(startDriver("Driver-" + region, () -> generate(driverRegion)));
+            }
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+        long submitEnd = System.nanoTime();
+
+        RewardQueue rewardQueue = pipeline.getRewardQueue();
+        boolean settled = dispatcher.awaitQuiescence(30, TimeUnit.SECONDS, () -> rewardQueue != null && rewardQueue.size() > 0);
+        long elapsed = System.nanoTime() - start;
+        pipeline.close();
+        dispatcher.shutdown();
+
+        long[] gcAfter = gcTotals();
+        long peakHeap = peakHeap();
+        System.gc();
+        long heapAfter = heapUsed();
+
+        report(submitEnd - start, elapsed, settled, heapBefore, heapAfter, peakHeap,
+            gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+        metrics.close();
+    }
+
+    private Thread startDriver(String name, Runnable body) {
+        Thread thread = new Thread(body, name);
+        thread.start();
+        return thread;
+    }
+
+    private void generate(int region) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int regions = dispatcher.regionCount();
+        long intervalNanos = (long) (1_000_000_000.0 * regions / options.rate);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.duration);
+        long next = System.nanoTime();
+        UUID previous = UUID.randomUUID();
+
+        while (next < deadline) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            int slots = (players.length - region + regions - 1) / regions;
+            int playerIndex = slots > 0 ? region + random.nextInt(slots) * regions : random.nextInt(players.length);
+            UUID uuid = random.nextDouble() < options.duplicate ? previous : new UUID(random.nextLong(), random.nextLong());
+            previous = uuid;
+            submit(region, killMix[random.nextInt(killMix.length)], playerIndex, uuid);
+            next += intervalNanos;
+        }
+    }
+
+    private void replay() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(options.replay);
+        } catch (IOException e) {
+            throw new IllegalStateException("無法讀取重播檔案：" + options.replay, e);
+        }
+
+        long start = System.nanoTime();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            long offsetNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(fields[0].trim()));
+            EntityType type = EntityType.valueOf(fields[1].trim().toUpperCase(Locale.ROOT));
+            int playerIndex = Math.floorMod(Integer.parseInt(fields[2].trim()), players.length);
+            int region = fields.length > 3 ? Integer.parseInt(fields[3].trim()) : playerIndex;
+
+            long wait = start + offsetNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            submit(Math.floorMod(region, dispatcher.regionCount()), type, playerIndex, UUID.randomUUID());
+        }
+    }
+
+    private void submit(int region, EntityType type, int playerIndex, UUID uuid) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Location location = new Location(world,
+            random.nextInt(-CHUNK_SPREAD, CHUNK_SPREAD) * 16 + 8, 64, random.nextInt(-CHUNK_SPREAD, CHUNK_SPREAD) * 16 + 8);
+        Player killer = players[playerIndex];
+        BenchmarkFixtures.MutableKill kill = kills[region];
+
+        submitted.increment();
+        dispatcher.region(region).execute(() -> {
+            kill.type = type;
+            kill.killer = killer;
+            kill.uuid = uuid;
+            kill.location = location;
+            pipeline.handleDeath(kill.entity);
+        });
+    }
+
+    private void report(long submitNanos, long elapsedNanos, boolean settled, long heapBefore, long heapAfter,
+                        long peakHeap, long gcCount, long gcMillis) {
+        long total = submitted.sum();
+        double submitSeconds = submitNanos / 1_000_000_000.0;
+
+        System.out.println("========== 模擬結果 ==========");
+        System.out.printf("送出擊殺：%d（%.1f 秒，實際 %.1f 次/秒，目標 %.1f 次/秒）%n",
+            total, submitSeconds, submitSeconds > 0 ? total / submitSeconds : 0, options.replay != null ? 0 : options.rate);
+        System.out.printf("總耗時：%.1f 秒%s%n", elapsedNanos / 1_000_000_000.0, settled ? "" : "（佇列未能在 30 秒內清空）");
+        System.out.printf("處理擊殺：%d，發放獎勵：%d%n", metrics.getKillsSeen(), metrics.getKillsRewarded());
+        for (SkipReason reason : SkipReason.values()) {
+            System.out.printf("  略過（%s）：%d%n", reason.key, metrics.getKillsSkipped(reason));
+        }
+        System.out.printf("經濟呼叫：%d，失敗：%d，逾時：%d，存款記錄：%d / 失敗 %d%n",
+            economyCalls.sum(), economyFailures.sum(), pipeline.getEconomyGateway().getTimeouts(),
+            metrics.getDepositsIssued(), metrics.getDepositsFailed());
+        if (pipeline.getRewardQueue() != null) {
+            System.out.printf("獎勵佇列：分段 %d，延後處理 %d，每 tick 處理耗時 %s%n", pipeline.getRewardQueue().stripes(),
+                pipeline.getRewardQueue().getDeferred(), metrics.getRewardDrainTimes().summarize(15).format());
+        }
+        System.out.println("處理延遲：" + metrics.getLatency(15).format());
+        for (RewardPhase phase : RewardPhase.values()) {
+            System.out.println("  " + phase.displayName + "：" + metrics.getPhaseTimes(phase).summarize(15).format());
+        }
+        System.out.printf("堆積記憶體：開始 %.1f MB，結束 %.1f MB，峰值 %.1f MB%n",
+            heapBefore / 1048576.0, heapAfter / 1048576.0, peakHeap / 1048576.0);
+        System.out.printf("GC：%d 次，共 %d ms%n", gcCount, gcMillis);
+    }
+
+    private static Path resolveConfig(String path, String resource, Path workFolder) throws IOException {
+        return path != null ? Paths.get(path) : BenchmarkFixtures.copyResource(resource, workFolder);
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    private static final class Options {
+        private double rate = 2000;
+        private long duration = 60;
+        private int regions = 8;
+        private int players = 200;
+        private boolean folia = true;
+        private String config;
+        private String entities;
+        private Path replay;
+        private long economyLatencyMicros;
+        private double economyFailure;
+        private double duplicate;
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("參數格式錯誤：" + args[i]);
+                }
+                values.put(args[i].substring(2), args[++i]);
+            }
+
+            Options options = new Options();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                String value = entry.getValue();
+                switch (entry.getKey()) {
+                    case "rate" -> options.rate = Double.parseDouble(value);
+                    case "duration" -> options.duration = Long.parseLong(value);
+                    case "regions" -> options.regions = Integer.parseInt(value);
+                    case "players" -> options.players = Integer.parseInt(value);
+                    case "mode" -> options.folia = !value.equalsIgnoreCase("paper");
+                    case "config" -> options.config = value;
+                    case "entities" -> options.entities = value;
+                    case "replay" -> options.replay = Paths.get(value);
+                    case "economy-latency-us" -> options.economyLatencyMicros = Long.parseLong(value);
+                    case "economy-failure" -> options.economyFailure = Double.parseDouble(value);
+                    case "duplicate" -> options.duplicate = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("未知的參數：--" + entry.getKey());
+                }
+            }
+            if (options.rate <= 0 || options.regions <= 0 || options.players <= 0) {
+                throw new IllegalArgumentException("rate、regions 與 players 必須大於 0");
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewardMathBenchmark {
+    private ConfigManager.MobConfig[] rewardTable;
+    private ConfigManager.MobConfig mobConfig;
+    private int next;
+
+    @Setup
+    public void setup() {
+        rewardTable = BenchmarkFixtures.rewardTable();
+        mobConfig = rewardTable[EntityType.ZOMBIE.ordinal()];
+    }
+
+    @Benchmark
+    public ConfigManager.MobConfig configLookup() {
+        EntityType type = BenchmarkFixtures.KILL_MIX[next++ & (BenchmarkFixtures.KILL_MIX.length - 1)];
+        return rewardTable[type.ordinal()];
+    }
+
+    @Benchmark
+    public double calculateReward() {
+        return RewardCalculator.calculateReward(mobConfig, 1.0);
+    }
+
+    @Benchmark
+    public int calculateDrops() {
+        return RewardCalculator.calculateDrops(mobConfig);
+    }
+
+    @Benchmark
+    public String formatAmount() {
+        return MessageTemplate.formatAmount(RewardCalculator.calculateReward(mobConfig, 1.0));
+    }
+
+    @Benchmark
+    public Component renderMessage() {
+        return mobConfig.rewardMessage.render(MessageTemplate.formatAmount(RewardCalculator.calculateReward(mobConfig, 1.0)));
+    }
+}
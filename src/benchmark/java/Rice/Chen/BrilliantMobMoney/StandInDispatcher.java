@@ -0,0 +1,112 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+final class StandInDispatcher implements TaskDispatcher {
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final ThreadPoolExecutor[] regions;
+    private final ThreadPoolExecutor economyLane;
+    private final ScheduledExecutorService timers;
+    private final boolean folia;
+
+    StandInDispatcher(int regionCount, boolean folia) {
+        this.folia = folia;
+        this.regions = new ThreadPoolExecutor[folia ? regionCount : 1];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = pool(1, folia ? "Region-" + i : "Server");
+        }
+        this.economyLane = folia ? pool(4, "Async") : regions[0];
+        this.timers = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    int regionCount() {
+        return regions.length;
+    }
+
+    ThreadPoolExecutor region(int index) {
+        return regions[index % regions.length];
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task, Runnable retired) {
+        regionOf(player).execute(task);
+    }
+
+    @Override
+    public void runForPlayerLater(Player player, Runnable task, Runnable retired, long delayTicks) {
+        ThreadPoolExecutor region = regionOf(player);
+        timers.schedule(() -> region.execute(task), delayTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runEconomy(Runnable task) {
+        economyLane.execute(task);
+    }
+
+    @Override
+    public void runEconomyTimer(Runnable task, long periodTicks) {
+        timers.scheduleAtFixedRate(() -> economyLane.execute(task),
+            periodTicks * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long periodTicks) {
+        timers.scheduleAtFixedRate(task, periodTicks * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    boolean awaitQuiescence(long timeout, TimeUnit unit, BooleanSupplier pending) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleChecks = 0;
+        while (System.nanoTime() < deadline) {
+            idleChecks = isIdle() && !pending.getAsBoolean() ? idleChecks + 1 : 0;
+            if (idleChecks >= 3) {
+                return true;
+            }
+            Thread.sleep(MILLIS_PER_TICK);
+        }
+        return false;
+    }
+
+    void shutdown() {
+        timers.shutdownNow();
+        for (ThreadPoolExecutor region : regions) {
+            region.shutdownNow();
+        }
+        economyLane.shutdownNow();
+    }
+
+    private boolean isIdle() {
+        for (ThreadPoolExecutor region : regions) {
+            if (region.getActiveCount() > 0 || !region.getQueue().isEmpty()) {
+                return false;
+            }
+        }
+        return economyLane.getActiveCount() == 0 && economyLane.getQueue().isEmpty();
+    }
+
+    private ThreadPoolExecutor regionOf(Player player) {
+        return regions[(int) Math.floorMod(player.getUniqueId().getMostSignificantBits(), (long) regions.length)];
+    }
+
+    private static ThreadPoolExecutor pool(int threads, String name) {
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory);
+    }
+}
@@ -1,5 +1,7 @@
 package Rice.Chen.BrilliantMobMoney;
 
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -9,31 +11,39 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityCombustByEntityEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 import net.milkbowl.vault.economy.Economy;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
-import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
-import io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler;
-import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
 
 public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandExecutor, TabCompleter {
     private Economy economy;
-    private final Random random = new Random();
     private ConfigManager configManager;
     private MetricsManager metricsManager;
+    private MetricsExporter metricsExporter;
+    private TaskDispatcher taskDispatcher;
+    private RewardPipeline rewardPipeline;
     
-    private final AtomicInteger processedCount = new AtomicInteger(0);
-    private long lastMetricsTime = System.currentTimeMillis();
-    
-    private final Set<UUID> recentlyProcessed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile long lastMetricsTime = System.currentTimeMillis();
 
     private boolean isFolia;
     
@@ -49,10 +59,11 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
     @Override
     public void onEnable() {
         this.isFolia = isFolia();
+        this.taskDispatcher = isFolia ? new FoliaTaskDispatcher(this) : new BukkitTaskDispatcher(this);
         configManager = new ConfigManager(this);
         
         if (configManager.isEnableMetrics()) {
-            metricsManager = new MetricsManager(this);
+            metricsManager = new MetricsManager(this, configManager);
         }
         
         if (!setupEconomy()) {
@@ -61,70 +72,81 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
             return;
         }
         
+        rewardPipeline = new RewardPipeline(getLogger(), getDataFolder().toPath(), configManager, taskDispatcher,
+            metricsManager, economy, isFolia || configManager.isAsyncEconomy(),
+            isFolia ? Runtime.getRuntime().availableProcessors() : 1);
+        rewardPipeline.replayJournal(getServer()::getOfflinePlayer);
+        setupPermissionMultipliers();
+        
+        RewardEvents.register();
         getServer().getPluginManager().registerEvents(this, this);
         getCommand("bmm").setExecutor(this);
         getCommand("bmm").setTabCompleter(this);
         
         setupScheduledTasks();
         
+        if (metricsManager != null && configManager.isExporterEnabled()) {
+            metricsExporter = new MetricsExporter(this, metricsManager);
+            metricsExporter.registerQueue("economy_retry", rewardPipeline.getEconomyGateway()::getQueuedCount);
+            metricsExporter.registerQueue("economy_executor", rewardPipeline.getEconomyGateway()::getExecutorQueuedCount);
+            if (rewardPipeline.getRewardQueue() != null) {
+                metricsExporter.registerQueue("reward", rewardPipeline.getRewardQueue()::size);
+            }
+            if (rewardPipeline.getRewardJournal() != null) {
+                metricsExporter.registerQueue("journal", rewardPipeline.getRewardJournal()::getBacklog);
+            }
+            if (rewardPipeline.getDepositBatcher() != null) {
+                metricsExporter.registerQueue("deposit_batch", rewardPipeline.getDepositBatcher()::getPendingCount);
+            }
+            if (rewardPipeline.getRewardNotifier() != null) {
+                metricsExporter.registerQueue("notification", rewardPipeline.getRewardNotifier()::getPendingCount);
+            }
+            metricsExporter.start(configManager.getExporterHost(), configManager.getExporterPort());
+        }
+        
         getLogger().info("BrilliantMobMoney 插件已啟用！");
     }
 
     
     private void setupScheduledTasks() {
-        if (isFolia) {
-            GlobalRegionScheduler globalScheduler = getServer().getGlobalRegionScheduler();
-            AsyncScheduler asyncScheduler = getServer().getAsyncScheduler();
-            
-            globalScheduler.runAtFixedRate(this, (task) -> {
-                if (recentlyProcessed.size() > configManager.getMaxRecentEntries()) {
-                    recentlyProcessed.clear();
-                    if (configManager.isDebug()) {
-                        getLogger().info("已清理最近處理的實體緩存");
-                    }
-                }
-                
-                if (configManager.isEnableMetrics()) {
-                    metricsManager.cleanupOldMetrics(configManager.getMetricsRetentionDays());
-                }
-            }, 1, configManager.getCleanupInterval());
-            
-            if (configManager.isEnableMetrics()) {
-                globalScheduler.runAtFixedRate(this, (task) -> this.logMetrics(), 300, 300);
-            }
-        } else {
-            getServer().getScheduler().runTaskTimer(this, () -> {
-                if (recentlyProcessed.size() > configManager.getMaxRecentEntries()) {
-                    recentlyProcessed.clear();
-                    if (configManager.isDebug()) {
-                        getLogger().info("已清理最近處理的實體緩存");
-                    }
-                }
-                
-                if (configManager.isEnableMetrics()) {
-                    metricsManager.cleanupOldMetrics(configManager.getMetricsRetentionDays());
-                }
-            }, configManager.getCleanupInterval() * 20L, configManager.getCleanupInterval() * 20L);
-            
-            if (configManager.isEnableMetrics()) {
-                getServer().getScheduler().runTaskTimer(this, this::logMetrics, 6000L, 6000L);
-            }
+        if (configManager.isEnableMetrics()) {
+            taskDispatcher.runAsyncTimer(this::logMetrics, 6000L);
+            taskDispatcher.runAsyncTimer(metricsManager.getEntityStats()::tick, EntityStats.TICK_SECONDS * 20L);
+        }
+        
+        rewardPipeline.scheduleMaintenance();
+        
+        int refreshSeconds = configManager.getPermissionRefreshSeconds();
+        if (refreshSeconds > 0) {
+            taskDispatcher.runAsyncTimer(() -> rewardPipeline.getPermissionMultipliers().refreshAll(getServer().getOnlinePlayers()),
+                refreshSeconds * 20L);
+        }
+    }
+    
+    private void setupPermissionMultipliers() {
+        PermissionMultipliers multipliers = rewardPipeline.getPermissionMultipliers();
+        configManager.addReloadListener(() -> multipliers.refreshAll(getServer().getOnlinePlayers()));
+        multipliers.refreshAll(getServer().getOnlinePlayers());
+        
+        if (getServer().getPluginManager().getPlugin("LuckPerms") != null && LuckPermsHook.register(this, multipliers)) {
+            getLogger().info("已連接 LuckPerms，權限變更時將即時更新獎勵倍率");
         }
     }
     
     private void logMetrics() {
         long now = System.currentTimeMillis();
-        int count = processedCount.getAndSet(0);
+        int count = rewardPipeline.resetProcessedCount();
+        int deposits = rewardPipeline.resetDepositCount();
         double timeSpan = (now - lastMetricsTime) / 1000.0;
         double rate = count / timeSpan;
         
         if (configManager.isEnableMetrics()) {
-            metricsManager.logMetrics(count, rate, configManager.getMobConfigs().size(), recentlyProcessed.size());
+            metricsManager.logMetrics(count, deposits, rate, configManager.getMobConfigs().size(), rewardPipeline.getRecentlyProcessed().size());
         }
         
         getLogger().info(String.format(
-            "效能監控：已處理 %d 個實體 (%.2f個/秒) | 緩存大小：%d | 最近處理列表大小：%d",
-            count, rate, configManager.getMobConfigs().size(), recentlyProcessed.size()
+            "效能監控：已處理 %d 個實體 (%.2f個/秒) | 存款次數：%d | 緩存大小：%d | 最近處理列表大小：%d",
+            count, rate, deposits, configManager.getMobConfigs().size(), rewardPipeline.getRecentlyProcessed().size()
         ));
         
         lastMetricsTime = now;
@@ -144,7 +166,19 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
 
     @Override
     public void onDisable() {
-        recentlyProcessed.clear();
+        if (rewardPipeline != null) {
+            rewardPipeline.close();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        if (metricsManager != null) {
+            metricsManager.close();
+        }
+        if (configManager != null) {
+            configManager.close();
+        }
+        RewardEvents.unregister();
         getLogger().info("BrilliantMobMoney 插件已禁用！");
     }
 
@@ -172,6 +206,22 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
                 handleMetrics(sender, args);
                 break;
 
+            case "trace":
+                if (!sender.hasPermission("brilliantmobmoney.trace")) {
+                    sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7您沒有權限執行此指令！");
+                    return true;
+                }
+                handleTrace(sender, args);
+                break;
+
+            case "ledger":
+                if (!sender.hasPermission("brilliantmobmoney.ledger")) {
+                    sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7您沒有權限執行此指令！");
+                    return true;
+                }
+                handleLedger(sender, args);
+                break;
+
             default:
                 showHelp(sender);
                 break;
@@ -180,12 +230,29 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
     }
 
     private void handleReload(CommandSender sender) {
-        try {
-            configManager.loadConfigs();
+        sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7正在背景重新載入設定檔案...");
+        configManager.reloadAsync().whenComplete((problems, error) -> runForSender(sender, () -> {
+            if (error != null) {
+                getLogger().log(Level.SEVERE, "重新載入配置時發生錯誤", error);
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7設定檔重新載入失敗，已沿用原有設定，請查看控制台獲取詳細信息！");
+                return;
+            }
+            
             sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7已重新載入設定檔案完成！");
-        } catch (Exception e) {
-            getLogger().log(Level.SEVERE, "重新載入配置時發生錯誤", e);
-            sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7設定檔重新載入失敗，請查看控制台獲取詳細信息！");
+            if (!problems.isEmpty()) {
+                sendMessage(sender, String.format("§7｜§6系統§7｜§f飯娘：§7設定檔中有 §e%d §7個問題：", problems.size()));
+                for (String problem : problems) {
+                    sendMessage(sender, "§7- §e" + problem);
+                }
+            }
+        }));
+    }
+
+    private void runForSender(CommandSender sender, Runnable task) {
+        if (sender instanceof Player player) {
+            taskDispatcher.runForPlayer(player, task, () -> {});
+        } else {
+            task.run();
         }
     }
 
@@ -203,11 +270,12 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
         switch (args[1].toLowerCase()) {
             case "record":
                 long now = System.currentTimeMillis();
-                int count = processedCount.getAndSet(0);
+                int count = rewardPipeline.resetProcessedCount();
+                int deposits = rewardPipeline.resetDepositCount();
                 double timeSpan = (now - lastMetricsTime) / 1000.0;
                 double rate = count / timeSpan;
                 
-                metricsManager.logMetrics(count, rate, configManager.getMobConfigs().size(), recentlyProcessed.size());
+                metricsManager.logMetrics(count, deposits, rate, configManager.getMobConfigs().size(), rewardPipeline.getRecentlyProcessed().size());
                 lastMetricsTime = now;
                 
                 sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7已手動記錄當前效能指標！");
@@ -217,14 +285,156 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
                 showCurrentMetrics(sender);
                 break;
 
+            case "history":
+                showMetricsHistory(sender, args);
+                break;
+
+            case "phases":
+                sendMessages(sender, metricsManager.describePhases(args.length >= 3 ? args[2] : null).toArray(new String[0]));
+                break;
+
+            case "top":
+                showTopEntities(sender, args);
+                break;
+
             default:
                 showMetricsHelp(sender);
                 break;
         }
     }
 
+    private void handleTrace(CommandSender sender, String[] args) {
+        if (args.length < 2 || !args[1].equalsIgnoreCase("dump")) {
+            sendMessages(sender, new String[] {
+                "§6==========[除錯追蹤]==========",
+                String.format("§f狀態：§e%s §7（已記錄 %d 筆，緩衝區容量 %d 筆，取樣比例 %.2f）",
+                    configManager.isDebug() ? "啟用" : "停用", rewardPipeline.getTraceBuffer().getRecorded(), rewardPipeline.getTraceBuffer().capacity(),
+                    configManager.getTraceSampleRate()),
+                "§e/bmm trace dump §7- §f將追蹤緩衝區寫入檔案",
+                "§6=============================="
+            });
+            return;
+        }
+
+        sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7正在背景匯出追蹤紀錄...");
+        rewardPipeline.getTraceBuffer().dump().whenComplete((file, error) -> runForSender(sender, () -> {
+            if (error != null) {
+                getLogger().log(Level.WARNING, "匯出追蹤紀錄時發生錯誤", error);
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7匯出追蹤紀錄失敗，請查看控制台獲取詳細信息！");
+            } else {
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7追蹤紀錄已匯出至 §e" + getDataFolder().toPath().relativize(file));
+            }
+        }));
+    }
+
+    private void handleLedger(CommandSender sender, String[] args) {
+        PayoutLedger ledger = rewardPipeline.getPayoutLedger();
+        if (ledger == null) {
+            sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7發放紀錄功能目前已停用！");
+            return;
+        }
+        if (args.length < 2) {
+            sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7用法：/bmm ledger <玩家> [30m|12h|7d|yyyy-MM-dd]");
+            return;
+        }
+
+        OfflinePlayer target = getServer().getPlayerExact(args[1]);
+        if (target == null) {
+            target = getServer().getOfflinePlayerIfCached(args[1]);
+        }
+        if (target == null) {
+            sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7找不到玩家 §e" + args[1] + "§7！");
+            return;
+        }
+
+        long since = 0;
+        if (args.length >= 3) {
+            since = parseSince(args[2]);
+            if (since < 0) {
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7時間格式錯誤，請使用 30m、12h、7d 或 yyyy-MM-dd！");
+                return;
+            }
+        }
+
+        String name = target.getName() != null ? target.getName() : args[1];
+        sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7正在背景查詢發放紀錄...");
+        ledger.query(target.getUniqueId(), since, 10).whenComplete((summary, error) -> runForSender(sender, () -> {
+            if (error != null) {
+                getLogger().log(Level.WARNING, "查詢發放紀錄時發生錯誤", error);
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7查詢發放紀錄失敗，請查看控制台獲取詳細信息！");
+                return;
+            }
+            if (summary.count == 0) {
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7找不到 §e" + name + " §7的發放紀錄！");
+                return;
+            }
+
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+            sendMessage(sender, "§6==========[" + name + " 的發放紀錄]==========");
+            sendMessage(sender, String.format("§f共 §e%d §f筆，合計 §a%s", summary.count, MessageTemplate.formatAmount(summary.total)));
+            for (PayoutLedger.Payout payout : summary.recent) {
+                World world = getServer().getWorld(payout.world);
+                sendMessage(sender, String.format("§7%s §f%s §a+%s §7%s (%d, %d)",
+                    formatter.format(Instant.ofEpochMilli(payout.timestamp)),
+                    configManager.getEntityDisplayName(payout.entityType.name()),
+                    MessageTemplate.formatAmount(payout.amount),
+                    world != null ? world.getName() : payout.world.toString().substring(0, 8),
+                    payout.chunkX, payout.chunkZ));
+            }
+            sendMessage(sender, "§6==============================");
+        }));
+    }
+
+    private static long parseSince(String value) {
+        try {
+            if (value.length() >= 2 && Character.isDigit(value.charAt(0))) {
+                long amount;
+                switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                    case 'm':
+                        amount = TimeUnit.MINUTES.toMillis(Long.parseLong(value.substring(0, value.length() - 1)));
+                        return System.currentTimeMillis() - amount;
+                    case 'h':
+                        amount = TimeUnit.HOURS.toMillis(Long.parseLong(value.substring(0, value.length() - 1)));
+                        return System.currentTimeMillis() - amount;
+                    case 'd':
+                        amount = TimeUnit.DAYS.toMillis(Long.parseLong(value.substring(0, value.length() - 1)));
+                        return System.currentTimeMillis() - amount;
+                    default:
+                        break;
+                }
+            }
+            return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private void showTopEntities(CommandSender sender, String[] args) {
+        EntityStats.Stat sortBy = EntityStats.Stat.SEEN;
+        if (args.length >= 3) {
+            sortBy = EntityStats.Stat.fromKey(args[2]);
+            if (sortBy == null) {
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7排序欄位只能是 seen、passed、rewarded 或 paid！");
+                return;
+            }
+        }
+
+        int limit = 10;
+        if (args.length >= 4) {
+            try {
+                limit = Math.max(1, Math.min(50, Integer.parseInt(args[3])));
+            } catch (NumberFormatException e) {
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7數量格式錯誤！");
+                return;
+            }
+        }
+
+        sendMessages(sender, metricsManager.getEntityStats().describeTop(sortBy, limit).toArray(new String[0]));
+    }
+
     private void showCurrentMetrics(CommandSender sender) {
-        int count = processedCount.get();
+        int count = rewardPipeline.getProcessedCount();
+        int deposits = rewardPipeline.getDepositCount();
         double timeSpan = (System.currentTimeMillis() - lastMetricsTime) / 1000.0;
         double rate = timeSpan > 0 ? count / timeSpan : 0;
 
@@ -232,19 +442,67 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
             "§6==========[效能監控]==========",
             String.format("§f處理實體數量：§e%d", count),
             String.format("§f處理速率：§e%.2f 個/秒", rate),
+            String.format("§f存款次數：§e%d §7（合併比例 %.2f）", deposits, deposits > 0 ? (double) count / deposits : 0),
+            String.format("§f待合併存款玩家數：§e%d", rewardPipeline.getDepositBatcher() != null ? rewardPipeline.getDepositBatcher().getPendingCount() : 0),
+            String.format("§f經濟斷路器：§e%s §7（連續失敗 %d 次，累計逾時 %d 次）",
+                rewardPipeline.getEconomyGateway().getState().displayName, rewardPipeline.getEconomyGateway().getConsecutiveFailures(), rewardPipeline.getEconomyGateway().getTimeouts()),
+            String.format("§f待補發獎勵：§e%d", rewardPipeline.getEconomyGateway().getQueuedCount()),
+            String.format("§f獎勵佇列：§e%d §7（每 tick 處理 %s）", metricsManager.getRewardQueueDepth(),
+                metricsManager.getRewardDrainTimes().summarize(1).format()),
+            String.format("§f經濟執行緒佇列：§e%d §7（等待 %s）", rewardPipeline.getEconomyGateway().getExecutorQueuedCount(),
+                metricsManager.getEconomyWaitTimes().summarize(1).format()),
             String.format("§f緩存大小：§e%d", configManager.getMobConfigs().size()),
-            String.format("§f最近處理列表大小：§e%d", recentlyProcessed.size()),
+            String.format("§f最近處理列表大小：§e%d", rewardPipeline.getRecentlyProcessed().size()),
+            String.format("§f頻率限制追蹤：§e%d §7位玩家、§e%d §7個區塊（已拒絕 %d 次）",
+                rewardPipeline.getRateLimiter().getTrackedPlayers(), rewardPipeline.getRateLimiter().getTrackedChunks(),
+                metricsManager.getKillsSkipped(SkipReason.RATE_LIMITED)),
+            String.format("§f權限倍率快取：§e%d §7位玩家", rewardPipeline.getPermissionMultipliers().size()),
+            String.format("§f擊殺判定紀錄：§e%d §7個實體（容量不足 %d 次）",
+                rewardPipeline.getDamageLedger().size(), rewardPipeline.getDamageLedger().getOverflows()),
+            String.format("§f生成原因索引：§e%d §7個實體（容量不足 %d 次）",
+                rewardPipeline.getSpawnReasons().size(), rewardPipeline.getSpawnReasons().getOverflows()),
+            String.format("§f發放紀錄：§e%s", rewardPipeline.getPayoutLedger() != null
+                ? "本次啟動已記錄 " + rewardPipeline.getPayoutLedger().getRecorded() + " 筆" : "停用"),
             String.format("§f插件MSPT影響：§e+%.3f", metricsManager.getCurrentMspt()),
             String.format("§f插件TPS影響：§e-%.3f", metricsManager.getCurrentTpsImpact()),
+            "§f延遲（1 分鐘）：§e" + metricsManager.getLatency(1).format(),
+            "§f延遲（5 分鐘）：§e" + metricsManager.getLatency(5).format(),
+            "§f延遲（15 分鐘）：§e" + metricsManager.getLatency(15).format(),
             "§6=============================="
         });
     }
 
+    private void showMetricsHistory(CommandSender sender, String[] args) {
+        LocalDate date;
+        try {
+            date = args.length >= 3 ? LocalDate.parse(args[2]) : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7日期格式錯誤，請使用 yyyy-MM-dd！");
+            return;
+        }
+
+        metricsManager.summarizeDay(date).whenComplete((summary, error) -> runForSender(sender, () -> {
+            if (error != null) {
+                getLogger().log(Level.WARNING, "讀取效能指標歷史時發生錯誤", error);
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7讀取效能指標歷史失敗，請查看控制台獲取詳細信息！");
+            } else if (summary == null) {
+                sendMessage(sender, "§7｜§6系統§7｜§f飯娘：§7找不到 §e" + date + " §7的效能指標記錄！");
+            } else {
+                sendMessage(sender, "§6==========[" + date + "]==========");
+                sendMessages(sender, summary.toArray(new String[0]));
+                sendMessage(sender, "§6==============================");
+            }
+        }));
+    }
+
     private void showMetricsHelp(CommandSender sender) {
         sendMessages(sender, new String[] {
             "§6==========[效能監控]==========",
             "§e/bmm metrics record §7- §f手動記錄當前效能",
             "§e/bmm metrics status §7- §f查看當前效能狀態",
+            "§e/bmm metrics history [日期] §7- §f查看指定日期的效能摘要",
+            "§e/bmm metrics phases [實體] §7- §f查看各處理階段的耗時",
+            "§e/bmm metrics top [seen|passed|rewarded|paid] [數量] §7- §f查看各實體的獎勵與負載排行",
             "§6=============================="
         });
     }
@@ -254,6 +512,8 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
             "§6==========[ BrilliantMobMoney ]==========",
             "§e/bmm reload §7- §f重新載入配置文件",
             "§e/bmm metrics §7- §f效能監控相關指令",
+            "§e/bmm trace [dump] §7- §f查看或匯出除錯追蹤紀錄",
+            "§e/bmm ledger <玩家> [時間] §7- §f查詢玩家的獎勵發放紀錄",
             "§6====================================="
         });
     }
@@ -269,10 +529,41 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
             if (sender.hasPermission("brilliantmobmoney.metrics")) {
                 completions.add("metrics");
             }
+            if (sender.hasPermission("brilliantmobmoney.trace")) {
+                completions.add("trace");
+            }
+            if (sender.hasPermission("brilliantmobmoney.ledger")) {
+                completions.add("ledger");
+            }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("metrics")) {
             if (sender.hasPermission("brilliantmobmoney.metrics")) {
                 completions.add("record");
                 completions.add("status");
+                completions.add("history");
+                completions.add("phases");
+                completions.add("top");
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("metrics") && args[1].equalsIgnoreCase("top")) {
+            if (sender.hasPermission("brilliantmobmoney.metrics")) {
+                for (EntityStats.Stat stat : EntityStats.Stat.values()) {
+                    completions.add(stat.key);
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("trace")) {
+            if (sender.hasPermission("brilliantmobmoney.trace")) {
+                completions.add("dump");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("ledger")) {
+            if (sender.hasPermission("brilliantmobmoney.ledger")) {
+                for (Player player : getServer().getOnlinePlayers()) {
+                    completions.add(player.getName());
+                }
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("ledger")) {
+            if (sender.hasPermission("brilliantmobmoney.ledger")) {
+                completions.add("1h");
+                completions.add("1d");
+                completions.add("7d");
             }
         }
         
@@ -293,153 +584,50 @@ public class BrilliantMobMoney extends JavaPlugin implements Listener, CommandEx
         return economy != null;
     }
 
-    private double calculateReward(ConfigManager.MobConfig config) {
-        if (config.min == config.max) {
-            return config.min;
-        }
-        return config.min + (config.max - config.min) * random.nextDouble();
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDeath(EntityDeathEvent event) {
+        rewardPipeline.handleDeath(event.getEntity());
     }
 
-    private int calculateDrops(String dropRange) {
-        if (dropRange.contains("-")) {
-            String[] range = dropRange.split("-");
-            int minDrops = Integer.parseInt(range[0]);
-            int maxDrops = Integer.parseInt(range[1]);
-            return random.nextInt(maxDrops - minDrops + 1) + minDrops;
-        }
-        return Integer.parseInt(dropRange);
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        rewardPipeline.handleSpawn(event.getEntity(), event.getSpawnReason());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onEntityDeath(EntityDeathEvent event) {
-        LivingEntity entity = event.getEntity();
-        Player killer = entity.getKiller();
-        
-        if (killer == null) return;
-        
-        String entityType = entity.getType().name();
-        ConfigManager.MobConfig mobConfig = configManager.getMobConfigs().get(entityType);
-        
-        if (!recentlyProcessed.add(entity.getUniqueId())) {
-            if (configManager.isDebug()) {
-                getLogger().info("跳過重複的實體：" + entityType);
-            }
+    public void onEntityDamage(EntityDamageEvent event) {
+        if (!configManager.isKillCredit() || !(event.getEntity() instanceof LivingEntity victim)) {
             return;
         }
-        
-        if (mobConfig == null || !mobConfig.enabled) {
-            return;
-        }
-        
-        if (mobConfig.onlyOnKill && killer == null) {
-            return;
-        }
-        
-        double randomChance = random.nextDouble() * 100.0;
-        if (randomChance > mobConfig.dropChance) {
-            if (configManager.isDebug()) {
-                getLogger().info(String.format(
-                    "未通過機率檢查：實體=%s, 隨機數=%.2f, 設定機率=%.2f",
-                    entityType, randomChance, mobConfig.dropChance));
-            }
-            return;
-        }
-        
-        final long startTime = configManager.isEnableMetrics() ? metricsManager.startTracking() : 0;
-        double reward = calculateReward(mobConfig);
-        int drops = calculateDrops(mobConfig.numberOfDrops);
-        final double totalReward = reward * drops;
-        
-        if (totalReward <= 0) {
-            if (configManager.isDebug()) {
-                getLogger().info("獎勵金額為零或負數，跳過處理");
-            }
-            return;
+        if (event instanceof EntityDamageByEntityEvent byEntity) {
+            rewardPipeline.handleDamage(victim, byEntity.getDamager(), event.getFinalDamage());
+        } else if (event.getCause() == EntityDamageEvent.DamageCause.FIRE_TICK) {
+            rewardPipeline.handleFireDamage(victim, event.getFinalDamage());
         }
+    }
 
-        if (configManager.isDebug()) {
-            getLogger().info(String.format(
-                "準備給予獎勵：玩家=%s, 實體=%s, 獎勵=%f, 通過機率檢查：%.2f <= %.2f", 
-                killer.getName(), entityType, totalReward, randomChance, mobConfig.dropChance));
-        }
-
-        final Player finalKiller = killer;
-        if (isFolia) {
-            getServer().getGlobalRegionScheduler().execute(this, () -> {
-                try {
-                    boolean success = economy.depositPlayer(finalKiller, totalReward).transactionSuccess();
-                    
-                    if (success) {
-                        final net.kyori.adventure.text.Component component;
-                        if (configManager.isShowMessageInActionBar()) {
-                            String message = configManager.getActionBarMessage()
-                                .replace("%mob%", mobConfig.displayName)
-                                .replace("%amount%", String.format("%.2f", totalReward));
-                            
-                            component = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer
-                                .legacySection()
-                                .deserialize(message);
-                            
-                            finalKiller.sendActionBar(component);
-                        } else {
-                            String message = String.format("§7｜§6系統§7｜§f飯娘：§7您擊殺了 §e%s §7，故獲得了 §a%.2f乙太§f（ꆙ） §7獎勵！", 
-                                mobConfig.displayName, totalReward);
-                            
-                            component = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer
-                                .legacySection()
-                                .deserialize(message);
-                            
-                            finalKiller.sendMessage(component);
-                        }
-
-                        if (configManager.isEnableMetrics()) {
-                            processedCount.incrementAndGet();
-                            metricsManager.endTracking(startTime);
-                        }
-                    } else {
-                        getLogger().warning(String.format("經濟操作失敗：玩家=%s, 金額=%f", 
-                            finalKiller.getName(), totalReward));
-                    }
-                } catch (Exception e) {
-                    getLogger().log(Level.SEVERE, String.format(
-                        "處理經濟操作時發生錯誤：玩家=%s, 金額=%f", finalKiller.getName(), totalReward), e);
-                    e.printStackTrace();
-                }
-            });
-        } else {
-            getServer().getScheduler().runTask(this, () -> {
-                try {
-                    boolean success = economy.depositPlayer(finalKiller, totalReward).transactionSuccess();
-                    if (success) {
-                        if (configManager.isShowMessageInActionBar()) {
-                            String message = configManager.getActionBarMessage()
-                                .replace("%mob%", mobConfig.displayName)
-                                .replace("%amount%", String.format("%.2f", totalReward));
-                            
-                            finalKiller.sendActionBar(net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer
-                                .legacySection()
-                                .deserialize(message));
-                        } else {
-                            String message = String.format("§7｜§6系統§7｜§f飯娘：§7您擊殺了 §e%s §7，故獲得了 §a%.2f乙太§f（ꆙ） §7獎勵！", 
-                                mobConfig.displayName, totalReward);
-                            
-                            finalKiller.sendMessage(net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer
-                                .legacySection()
-                                .deserialize(message));
-                        }
-                        
-                        if (configManager.isEnableMetrics()) {
-                            processedCount.incrementAndGet();
-                            metricsManager.endTracking(startTime);
-                        }
-                    } else {
-                        getLogger().warning(String.format("經濟操作失敗：玩家=%s, 金額=%f", 
-                            finalKiller.getName(), totalReward));
-                    }
-                } catch (Exception e) {
-                    getLogger().log(Level.SEVERE, "處理事件時發生錯誤", e);
-                }
-            });
-        }
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityCombust(EntityCombustByEntityEvent event) {
+        rewardPipeline.handleIgnite(event.getEntity(), event.getCombuster());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        rewardPipeline.handleRemove(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        rewardPipeline.getPermissionMultipliers().load(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        rewardPipeline.getPermissionMultipliers().load(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        rewardPipeline.handleQuit(event.getPlayer().getUniqueId());
     }
-}
\ No newline at end of file
+}
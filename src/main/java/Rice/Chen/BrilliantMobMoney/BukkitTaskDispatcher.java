@@ -0,0 +1,52 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+public class BukkitTaskDispatcher implements TaskDispatcher {
+    private final JavaPlugin plugin;
+    private final BukkitScheduler scheduler;
+
+    public BukkitTaskDispatcher(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getServer().getScheduler();
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task, Runnable retired) {
+        if (plugin.getServer().isPrimaryThread()) {
+            runIfOnline(player, task, retired);
+        } else {
+            scheduler.runTask(plugin, () -> runIfOnline(player, task, retired));
+        }
+    }
+
+    @Override
+    public void runForPlayerLater(Player player, Runnable task, Runnable retired, long delayTicks) {
+        scheduler.runTaskLater(plugin, () -> runIfOnline(player, task, retired), Math.max(1, delayTicks));
+    }
+
+    @Override
+    public void runEconomy(Runnable task) {
+        scheduler.runTask(plugin, task);
+    }
+
+    @Override
+    public void runEconomyTimer(Runnable task, long periodTicks) {
+        scheduler.runTaskTimer(plugin, task, periodTicks, periodTicks);
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long periodTicks) {
+        scheduler.runTaskTimerAsynchronously(plugin, task, periodTicks, periodTicks);
+    }
+
+    private void runIfOnline(Player player, Runnable task, Runnable retired) {
+        if (player.isOnline()) {
+            task.run();
+        } else {
+            retired.run();
+        }
+    }
+}
@@ -1,187 +1,549 @@
 package Rice.Chen.BrilliantMobMoney;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ConfigManager {
-    private final JavaPlugin plugin;
-    private final Map<String, String> entityNames = new HashMap<>();
-    private final Map<String, MobConfig> mobConfigs = new ConcurrentHashMap<>();
-    private FileConfiguration config;
-    private FileConfiguration entityConfig;
-    private File configFile;
-    private File entityConfigFile;
-    
-    private int cleanupInterval;
-    private int maxRecentEntries;
-    private boolean enableMetrics;
-    private int asyncTimeout;
-    private boolean debug;
-    private int metricsRetentionDays;
-    private boolean showMessageInActionBar;
-    private String actionBarMessage;
+    public static final String DEFAULT_REWARD_MESSAGE =
+        "§7｜§6系統§7｜§f飯娘：§7您擊殺了 §e%mob% §7，故獲得了 §a%amount%乙太§f（ꆙ） §7獎勵！";
+    private static final String DEFAULT_NOTIFICATION_MESSAGE =
+        "§7｜§6系統§7｜§f飯娘：§7您擊殺了 §e%kills% §7隻生物，故獲得了 §a%amount%乙太§f（ꆙ） §7獎勵！";
+    private static final Set<String> CATEGORY_KEYS = Set.of("Min", "Max", "DropChance", "NumberOfDrops", "OnlyOnKill");
+
+    private final Logger logger;
+    private final File configFile;
+    private final File entityConfigFile;
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BrilliantMobMoney-Config");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+    private ConfigWatcher watcher;
 
     public ConfigManager(JavaPlugin plugin) {
-        this.plugin = plugin;
-        saveDefaultConfigs();
+        this.logger = plugin.getLogger();
+        this.configFile = new File(plugin.getDataFolder(), "config.yml");
+        this.entityConfigFile = new File(plugin.getDataFolder(), "entity.yml");
+        saveDefaultConfigs(plugin);
         loadConfigs();
+
+        if (snapshot.watchConfigFiles) {
+            watcher = new ConfigWatcher(plugin, this);
+            watcher.start();
+        }
     }
 
-    private void saveDefaultConfigs() {
-        if (!new File(plugin.getDataFolder(), "config.yml").exists()) {
+    ConfigManager(Logger logger, File configFile, File entityConfigFile) {
+        this.logger = logger;
+        this.configFile = configFile;
+        this.entityConfigFile = entityConfigFile;
+        loadConfigs();
+    }
+
+    private void saveDefaultConfigs(JavaPlugin plugin) {
+        if (!configFile.exists()) {
             plugin.saveResource("config.yml", false);
         }
-        if (!new File(plugin.getDataFolder(), "entity.yml").exists()) {
+        if (!entityConfigFile.exists()) {
             plugin.saveResource("entity.yml", false);
         }
     }
 
     public void loadConfigs() {
-        configFile = new File(plugin.getDataFolder(), "config.yml");
-        config = YamlConfiguration.loadConfiguration(configFile);
-        
-        entityConfigFile = new File(plugin.getDataFolder(), "entity.yml");
-        entityConfig = YamlConfiguration.loadConfiguration(entityConfigFile);
-
-        loadEntityNames();
-        
-        loadSettings();
-        
-        loadMobConfigs();
+        List<String> problems = new ArrayList<>();
+        try {
+            snapshot = parse(problems);
+        } catch (IOException | InvalidConfigurationException e) {
+            logger.log(Level.SEVERE, "無法讀取設定檔，將使用預設值", e);
+            snapshot = Snapshot.build(new YamlConfiguration(), new YamlConfiguration(), problems);
+        }
+        logProblems(problems);
+
+        if (snapshot.debug) {
+            logMobConfigStats();
+        }
     }
 
-    private void loadSettings() {
-        cleanupInterval = config.getInt("Settings.cleanup-interval", 30);
-        maxRecentEntries = config.getInt("Settings.max-recent-entries", 1000);
-        enableMetrics = config.getBoolean("Settings.enable-metrics", false);
-        asyncTimeout = config.getInt("Settings.async-timeout", 5000);
-        debug = config.getBoolean("Settings.debug", false);
-        metricsRetentionDays = config.getInt("Settings.metrics-retention-days", 30);
-        
-        showMessageInActionBar = config.getBoolean("ShowMessageInActionBar.Enabled", true);
-        actionBarMessage = config.getString("ShowMessageInActionBar.Message", 
-            "§7｜§6系統§7｜§f飯娘：§7您擊殺了 §e%mob% §7，故獲得了 §a%amount%乙太§f（ꆙ） §7獎勵！");
+    public CompletableFuture<List<String>> reloadAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> problems = new ArrayList<>();
+            try {
+                Snapshot next = parse(problems);
+                snapshot = next;
+            } catch (IOException | InvalidConfigurationException e) {
+                throw new CompletionException(e);
+            }
+            logProblems(problems);
+
+            if (snapshot.debug) {
+                logMobConfigStats();
+            }
+            for (Runnable listener : reloadListeners) {
+                listener.run();
+            }
+            return problems;
+        }, reloadExecutor);
     }
 
-    private void loadEntityNames() {
-        entityNames.clear();
-        ConfigurationSection entityList = entityConfig.getConfigurationSection("EntityList");
-        if (entityList != null) {
-            for (String entityType : entityList.getKeys(false)) {
-                String displayName = entityList.getString(entityType + ".DisplayName");
-                if (displayName != null) {
-                    entityNames.put(entityType, displayName);
-                }
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    public void close() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        reloadExecutor.shutdownNow();
+    }
+
+    private Snapshot parse(List<String> problems) throws IOException, InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.load(configFile);
+
+        YamlConfiguration entityConfig = new YamlConfiguration();
+        entityConfig.load(entityConfigFile);
+
+        return Snapshot.build(config, entityConfig, problems);
+    }
+
+    private void logProblems(List<String> problems) {
+        for (String problem : problems) {
+            logger.warning("設定檔問題：" + problem);
+        }
+    }
+
+    private void logMobConfigStats() {
+        Snapshot current = snapshot;
+        logger.info("已載入 " + current.mobConfigs.size() + " 個生物配置。");
+        for (Map.Entry<String, Integer> entry : current.categoryCounts.entrySet()) {
+            logger.info(String.format("- %s：%d 個配置", entry.getKey(), entry.getValue()));
+        }
+    }
+
+    public int getCleanupInterval() { return snapshot.cleanupInterval; }
+    public int getMaxRecentEntries() { return snapshot.maxRecentEntries; }
+    public int getDedupeTicks() { return snapshot.dedupeTicks; }
+    public boolean isEnableMetrics() { return snapshot.enableMetrics; }
+    public int getAsyncTimeout() { return snapshot.asyncTimeout; }
+    public boolean isDebug() { return snapshot.debug; }
+    public int getMetricsRetentionDays() { return snapshot.metricsRetentionDays; }
+    public boolean isCompressOldMetrics() { return snapshot.compressOldMetrics; }
+    public boolean isExporterEnabled() { return snapshot.exporterEnabled; }
+    public String getExporterHost() { return snapshot.exporterHost; }
+    public int getExporterPort() { return snapshot.exporterPort; }
+    public boolean isShowMessageInActionBar() { return snapshot.showMessageInActionBar; }
+    public String getActionBarMessage() { return snapshot.actionBarMessage; }
+    public boolean isBatchDeposits() { return snapshot.batchDeposits; }
+    public int getBatchFlushInterval() { return snapshot.batchFlushInterval; }
+    public double getBatchMaxPendingAmount() { return snapshot.batchMaxPendingAmount; }
+    public int getBatchMaxPendingKills() { return snapshot.batchMaxPendingKills; }
+    public boolean isEconomyGuard() { return snapshot.economyGuard; }
+    public int getEconomyMaxConcurrent() { return snapshot.economyMaxConcurrent; }
+    public int getEconomyFailureThreshold() { return snapshot.economyFailureThreshold; }
+    public int getEconomyOpenSeconds() { return snapshot.economyOpenSeconds; }
+    public int getEconomyRetryQueueSize() { return snapshot.economyRetryQueueSize; }
+    public boolean isAsyncEconomy() { return snapshot.asyncEconomy; }
+    public boolean isRewardQueue() { return snapshot.rewardQueue; }
+    public int getRewardQueueCapacity() { return snapshot.rewardQueueCapacity; }
+    public long getRewardQueueBudgetNanos() { return snapshot.rewardQueueBudgetNanos; }
+    public RewardQueue.OverflowPolicy getRewardQueueOverflow() { return snapshot.rewardQueueOverflow; }
+    public int getTraceBufferSize() { return snapshot.traceBufferSize; }
+    public double getTraceSampleRate() { return snapshot.traceSampleRate; }
+    public boolean isRateLimit() { return snapshot.rateLimit; }
+    public double getRateLimitPlayerBurst() { return snapshot.rateLimitPlayerBurst; }
+    public double getRateLimitPlayerPerSecond() { return snapshot.rateLimitPlayerPerSecond; }
+    public double getRateLimitChunkBurst() { return snapshot.rateLimitChunkBurst; }
+    public double getRateLimitChunkPerSecond() { return snapshot.rateLimitChunkPerSecond; }
+    public boolean isPermissionMultipliers() { return snapshot.permissionMultipliers; }
+    public double getMaxPermissionMultiplier() { return snapshot.maxPermissionMultiplier; }
+    public int getPermissionRefreshSeconds() { return snapshot.permissionRefreshSeconds; }
+    public boolean isSpawnReasons() { return snapshot.spawnReasons; }
+    public int getSpawnReasonMaxEntries() { return snapshot.spawnReasonMaxEntries; }
+    public double getSpawnMultiplier(int reason) { return snapshot.spawnMultipliers[reason]; }
+    public boolean isSpawnReasonTracked(CreatureSpawnEvent.SpawnReason reason) { return snapshot.spawnMultipliers[reason.ordinal()] != 1.0; }
+    public boolean isKillCredit() { return snapshot.killCredit; }
+    public DamageLedger.Mode getKillCreditMode() { return snapshot.killCreditMode; }
+    public int getKillCreditWindowTicks() { return snapshot.killCreditWindowTicks; }
+    public double getKillCreditMinShare() { return snapshot.killCreditMinShare; }
+    public int getKillCreditMaxEntities() { return snapshot.killCreditMaxEntities; }
+    public boolean isRewardJournal() { return snapshot.rewardJournal; }
+    public long getJournalCompactThreshold() { return snapshot.journalCompactThreshold; }
+    public boolean isPayoutLedger() { return snapshot.payoutLedger; }
+    public int getLedgerSegmentRecords() { return snapshot.ledgerSegmentRecords; }
+    public boolean isCoalesceNotifications() { return snapshot.coalesceNotifications; }
+    public int getNotificationWindow() { return snapshot.notificationWindow; }
+    public MessageTemplate getNotificationMessage() { return snapshot.notificationMessage; }
+    public Map<String, MobConfig> getMobConfigs() { return snapshot.mobConfigs; }
+    public MobConfig getRewardConfig(EntityType type) { return snapshot.rewardTable[type.ordinal()]; }
+
+    public boolean isTraced(String playerName, EntityType type) {
+        Snapshot current = snapshot;
+        if (current.traceEntities != null && !current.traceEntities[type.ordinal()]) {
+            return false;
+        }
+        if (current.tracePlayers.length == 0) {
+            return true;
+        }
+        for (String name : current.tracePlayers) {
+            if (name.equalsIgnoreCase(playerName)) {
+                return true;
             }
         }
+        return false;
+    }
+
+    public String getEntityDisplayName(String entityType) {
+        return snapshot.entityNames.getOrDefault(entityType, entityType);
     }
 
-    private void loadMobConfigs() {
-        mobConfigs.clear();
-        ConfigurationSection mobsSection = config.getConfigurationSection("Mobs");
-        
-        if (mobsSection != null) {
-            for (String category : mobsSection.getKeys(false)) {
-                ConfigurationSection categorySection = mobsSection.getConfigurationSection(category);
-                if (categorySection != null) {
+    private static class Snapshot {
+        private int cleanupInterval;
+        private int maxRecentEntries;
+        private int dedupeTicks;
+        private boolean enableMetrics;
+        private int asyncTimeout;
+        private boolean debug;
+        private int metricsRetentionDays;
+        private boolean watchConfigFiles;
+        private boolean compressOldMetrics;
+        private boolean exporterEnabled;
+        private String exporterHost;
+        private int exporterPort;
+        private boolean showMessageInActionBar;
+        private String actionBarMessage;
+        private boolean batchDeposits;
+        private int batchFlushInterval;
+        private double batchMaxPendingAmount;
+        private int batchMaxPendingKills;
+        private boolean economyGuard;
+        private int economyMaxConcurrent;
+        private int economyFailureThreshold;
+        private int economyOpenSeconds;
+        private int economyRetryQueueSize;
+        private boolean asyncEconomy;
+        private boolean rewardQueue;
+        private int rewardQueueCapacity;
+        private long rewardQueueBudgetNanos;
+        private RewardQueue.OverflowPolicy rewardQueueOverflow;
+        private int traceBufferSize;
+        private double traceSampleRate;
+        private boolean[] traceEntities;
+        private String[] tracePlayers;
+        private boolean rateLimit;
+        private double rateLimitPlayerBurst;
+        private double rateLimitPlayerPerSecond;
+        private double rateLimitChunkBurst;
+        private double rateLimitChunkPerSecond;
+        private boolean permissionMultipliers;
+        private double maxPermissionMultiplier;
+        private int permissionRefreshSeconds;
+        private boolean spawnReasons;
+        private int spawnReasonMaxEntries;
+        private double[] spawnMultipliers;
+        private boolean killCredit;
+        private DamageLedger.Mode killCreditMode;
+        private int killCreditWindowTicks;
+        private double killCreditMinShare;
+        private int killCreditMaxEntities;
+        private boolean rewardJournal;
+        private long journalCompactThreshold;
+        private boolean payoutLedger;
+        private int ledgerSegmentRecords;
+        private boolean coalesceNotifications;
+        private int notificationWindow;
+        private MessageTemplate notificationMessage;
+        private Map<String, String> entityNames;
+        private Map<String, MobConfig> mobConfigs;
+        private Map<String, Integer> categoryCounts;
+        private MobConfig[] rewardTable;
+
+        static Snapshot build(FileConfiguration config, FileConfiguration entityConfig, List<String> problems) {
+            Snapshot snapshot = new Snapshot();
+            snapshot.loadSettings(config, problems);
+            snapshot.loadEntityNames(entityConfig);
+            snapshot.loadMobConfigs(config, problems);
+            return snapshot;
+        }
+
+        private void loadSettings(FileConfiguration config, List<String> problems) {
+            cleanupInterval = config.getInt("Settings.cleanup-interval", 30);
+            maxRecentEntries = config.getInt("Settings.max-recent-entries", 1000);
+            dedupeTicks = config.getInt("Settings.dedupe-ticks", 100);
+            enableMetrics = config.getBoolean("Settings.enable-metrics", false);
+            asyncTimeout = config.getInt("Settings.async-timeout", 5000);
+            debug = config.getBoolean("Settings.debug", false);
+            metricsRetentionDays = config.getInt("Settings.metrics-retention-days", 30);
+            watchConfigFiles = config.getBoolean("Settings.watch-config-files", false);
+            compressOldMetrics = config.getBoolean("Settings.compress-old-metrics", true);
+
+            exporterEnabled = config.getBoolean("MetricsExporter.Enabled", false);
+            exporterHost = config.getString("MetricsExporter.host", "127.0.0.1");
+            exporterPort = config.getInt("MetricsExporter.port", 9464);
+
+            showMessageInActionBar = config.getBoolean("ShowMessageInActionBar.Enabled", true);
+            actionBarMessage = config.getString("ShowMessageInActionBar.Message", DEFAULT_REWARD_MESSAGE);
+
+            batchDeposits = config.getBoolean("DepositBatching.Enabled", false);
+            batchFlushInterval = Math.max(1, config.getInt("DepositBatching.flush-interval", 20));
+            batchMaxPendingAmount = config.getDouble("DepositBatching.max-pending-amount", 0);
+            batchMaxPendingKills = config.getInt("DepositBatching.max-pending-kills", 0);
+
+            economyGuard = config.getBoolean("EconomyGuard.Enabled", false);
+            economyMaxConcurrent = Math.max(1, config.getInt("EconomyGuard.max-concurrent", 4));
+            economyFailureThreshold = Math.max(1, config.getInt("EconomyGuard.failure-threshold", 5));
+            economyOpenSeconds = Math.max(1, config.getInt("EconomyGuard.open-seconds", 30));
+            economyRetryQueueSize = Math.max(1, config.getInt("EconomyGuard.retry-queue-size", 1000));
+
+            asyncEconomy = config.getBoolean("AsyncEconomy.Enabled", false);
+
+            rewardQueue = config.getBoolean("RewardQueue.Enabled", false);
+            rewardQueueCapacity = Math.max(256, config.getInt("RewardQueue.capacity", 8192));
+            rewardQueueBudgetNanos = (long) (Math.max(0.1, config.getDouble("RewardQueue.drain-budget-ms", 5.0)) * 1_000_000L);
+            String overflow = config.getString("RewardQueue.overflow-policy", "SPILL");
+            try {
+                rewardQueueOverflow = RewardQueue.OverflowPolicy.valueOf(overflow.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                rewardQueueOverflow = RewardQueue.OverflowPolicy.SPILL;
+                problems.add("RewardQueue.overflow-policy 只能是 DROP、SPILL 或 DEFER：" + overflow);
+            }
+
+            traceBufferSize = Math.max(16, config.getInt("Trace.buffer-size", 4096));
+            traceSampleRate = Math.min(1.0, Math.max(0.0, config.getDouble("Trace.sample-rate", 1.0)));
+            List<String> entityFilter = config.getStringList("Trace.entities");
+            traceEntities = null;
+            if (!entityFilter.isEmpty()) {
+                traceEntities = new boolean[EntityType.values().length];
+                for (String name : entityFilter) {
+                    try {
+                        traceEntities[EntityType.valueOf(name.toUpperCase()).ordinal()] = true;
+                    } catch (IllegalArgumentException e) {
+                        problems.add("Trace.entities 中的實體類型不存在：" + name);
+                    }
+                }
+            }
+            tracePlayers = config.getStringList("Trace.players").toArray(new String[0]);
+
+            rateLimit = config.getBoolean("RateLimit.Enabled", false);
+            rateLimitPlayerBurst = Math.max(0, config.getDouble("RateLimit.player-burst", 40));
+            rateLimitPlayerPerSecond = Math.max(0, config.getDouble("RateLimit.player-per-second", 2));
+            rateLimitChunkBurst = Math.max(0, config.getDouble("RateLimit.chunk-burst", 60));
+            rateLimitChunkPerSecond = Math.max(0, config.getDouble("RateLimit.chunk-per-second", 3));
+
+            permissionMultipliers = config.getBoolean("PermissionMultipliers.Enabled", false);
+            maxPermissionMultiplier = Math.max(0, config.getDouble("PermissionMultipliers.max-multiplier", 10));
+            permissionRefreshSeconds = Math.max(0, config.getInt("PermissionMultipliers.refresh-seconds", 300));
+
+            spawnReasons = config.getBoolean("SpawnReasons.Enabled", false);
+            spawnReasonMaxEntries = Math.max(1024, config.getInt("SpawnReasons.max-entries", 65536));
+            spawnMultipliers = new double[CreatureSpawnEvent.SpawnReason.values().length];
+            Arrays.fill(spawnMultipliers, 1.0);
+            ConfigurationSection spawnSection = config.getConfigurationSection("SpawnReasons.multipliers");
+            if (spawnSection != null) {
+                for (String name : spawnSection.getKeys(false)) {
+                    try {
+                        spawnMultipliers[CreatureSpawnEvent.SpawnReason.valueOf(name.toUpperCase()).ordinal()] =
+                            Math.max(0, spawnSection.getDouble(name, 1.0));
+                    } catch (IllegalArgumentException e) {
+                        problems.add("SpawnReasons.multipliers 中的生成原因不存在：" + name);
+                    }
+                }
+            }
+
+            killCredit = config.getBoolean("KillCredit.Enabled", false);
+            String mode = config.getString("KillCredit.mode", "LAST_HIT");
+            try {
+                killCreditMode = DamageLedger.Mode.valueOf(mode.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                killCreditMode = DamageLedger.Mode.LAST_HIT;
+                problems.add("KillCredit.mode 只能是 LAST_HIT 或 SPLIT：" + mode);
+            }
+            killCreditWindowTicks = Math.max(1, config.getInt("KillCredit.window-seconds", 15)) * 20;
+            killCreditMinShare = Math.min(1.0, Math.max(0.0, config.getDouble("KillCredit.min-share", 0.1)));
+            killCreditMaxEntities = Math.max(1024, config.getInt("KillCredit.max-entities", 8192));
+
+            rewardJournal = config.getBoolean("RewardJournal.Enabled", false);
+            journalCompactThreshold = Math.max(64, config.getLong("RewardJournal.compact-threshold-kb", 4096)) * 1024L;
+
+            payoutLedger = config.getBoolean("PayoutLedger.Enabled", false);
+            // 每筆紀錄 64 位元組，1 MB 可存放 16384 筆
+            ledgerSegmentRecords = Math.min(1024, Math.max(1, config.getInt("PayoutLedger.segment-size-mb", 16))) * 16384;
+
+            coalesceNotifications = config.getBoolean("NotificationCoalescing.Enabled", false);
+            notificationWindow = Math.max(1, config.getInt("NotificationCoalescing.window-ticks", 20));
+            notificationMessage = MessageTemplate.compile(
+                config.getString("NotificationCoalescing.Message", DEFAULT_NOTIFICATION_MESSAGE), "%kills%", "%amount%");
+        }
+
+        private void loadEntityNames(FileConfiguration entityConfig) {
+            Map<String, String> names = new HashMap<>();
+            ConfigurationSection entityList = entityConfig.getConfigurationSection("EntityList");
+            if (entityList != null) {
+                for (String entityType : entityList.getKeys(false)) {
+                    String displayName = entityList.getString(entityType + ".DisplayName");
+                    if (displayName != null) {
+                        names.put(entityType, displayName);
+                    }
+                }
+            }
+            entityNames = Collections.unmodifiableMap(names);
+        }
+
+        private void loadMobConfigs(FileConfiguration config, List<String> problems) {
+            Map<String, MobConfig> configs = new HashMap<>();
+            Map<String, Integer> counts = new HashMap<>();
+            MobConfig[] table = new MobConfig[EntityType.values().length];
+            String message = showMessageInActionBar ? actionBarMessage : DEFAULT_REWARD_MESSAGE;
+            ConfigurationSection mobsSection = config.getConfigurationSection("Mobs");
+
+            if (mobsSection != null) {
+                for (String category : mobsSection.getKeys(false)) {
+                    ConfigurationSection categorySection = mobsSection.getConfigurationSection(category);
+                    if (categorySection == null) {
+                        continue;
+                    }
+
                     double defaultMin = categorySection.getDouble("Min", 0);
                     double defaultMax = categorySection.getDouble("Max", 0);
                     double defaultDropChance = categorySection.getDouble("DropChance", 0);
                     String defaultNumberOfDrops = categorySection.getString("NumberOfDrops", "1");
                     boolean defaultOnlyOnKill = categorySection.getBoolean("OnlyOnKill", true);
-                    
+                    int count = 0;
+
                     for (String entityType : categorySection.getKeys(false)) {
-                        if (entityType.equals("Min") || entityType.equals("Max") ||
-                            entityType.equals("DropChance") || entityType.equals("NumberOfDrops") ||
-                            entityType.equals("OnlyOnKill")) {
+                        if (CATEGORY_KEYS.contains(entityType)) {
                             continue;
                         }
-                        
+
                         ConfigurationSection mobSection = categorySection.getConfigurationSection(entityType);
-                        if (mobSection != null) {
-                            YamlConfiguration defaults = new YamlConfiguration();
-                            defaults.set("Min", defaultMin);
-                            defaults.set("Max", defaultMax);
-                            defaults.set("DropChance", defaultDropChance);
-                            defaults.set("NumberOfDrops", defaultNumberOfDrops);
-                            defaults.set("OnlyOnKill", defaultOnlyOnKill);
-                            
-                            mobConfigs.put(entityType, new MobConfig(mobSection, entityType, this, defaults));
+                        if (mobSection == null) {
+                            continue;
+                        }
+                        count++;
+
+                        double min = mobSection.getDouble("Min", defaultMin);
+                        double max = mobSection.getDouble("Max", defaultMax);
+                        double dropChance = mobSection.getDouble("DropChance", defaultDropChance);
+                        String numberOfDrops = mobSection.getString("NumberOfDrops", defaultNumberOfDrops);
+                        int[] dropRange = parseDropRange(numberOfDrops);
+
+                        if (min < 0 || max < 0) {
+                            problems.add(String.format("%s.%s：Min/Max 不可為負數，已停用此生物", category, entityType));
+                            continue;
+                        }
+                        if (min > max) {
+                            problems.add(String.format("%s.%s：Min (%.2f) 大於 Max (%.2f)，已停用此生物",
+                                category, entityType, min, max));
+                            continue;
+                        }
+                        if (dropRange == null) {
+                            problems.add(String.format("%s.%s：NumberOfDrops 格式錯誤（%s），已停用此生物",
+                                category, entityType, numberOfDrops));
+                            continue;
+                        }
+                        if (dropChance < 0 || dropChance > 100) {
+                            problems.add(String.format("%s.%s：DropChance 應介於 0 到 100 之間（%.2f），已停用此生物",
+                                category, entityType, dropChance));
+                            continue;
+                        }
+
+                        String displayName = entityNames.getOrDefault(entityType, entityType);
+                        MobConfig mobConfig = new MobConfig(
+                            mobSection.getBoolean("Enabled", true), min, max, dropChance, numberOfDrops,
+                            dropRange[0], dropRange[1], mobSection.getBoolean("OnlyOnKill", defaultOnlyOnKill),
+                            displayName, MessageTemplate.compile(message.replace("%mob%", displayName), "%amount%"));
+                        configs.put(entityType, mobConfig);
+
+                        EntityType type;
+                        try {
+                            type = EntityType.valueOf(entityType);
+                        } catch (IllegalArgumentException e) {
+                            problems.add(String.format("%s.%s：此伺服器版本沒有此實體類型，已略過", category, entityType));
+                            continue;
+                        }
+                        if (mobConfig.enabled) {
+                            table[type.ordinal()] = mobConfig;
                         }
                     }
+                    counts.put(category, count);
                 }
             }
+
+            mobConfigs = Collections.unmodifiableMap(configs);
+            categoryCounts = Collections.unmodifiableMap(counts);
+            rewardTable = table;
         }
-        
-        if (debug) {
-            logMobConfigStats();
-        }
-    }
 
-    private void logMobConfigStats() {
-        plugin.getLogger().info("已載入 " + mobConfigs.size() + " 個生物配置。");
-        ConfigurationSection mobsSection = config.getConfigurationSection("Mobs");
-        if (mobsSection != null) {
-            for (String category : mobsSection.getKeys(false)) {
-                ConfigurationSection categorySection = mobsSection.getConfigurationSection(category);
-                if (categorySection != null) {
-                    long count = categorySection.getKeys(false).stream()
-                        .filter(key -> !key.equals("Min") && !key.equals("Max") &&
-                                     !key.equals("DropChance") && !key.equals("NumberOfDrops") &&
-                                     !key.equals("OnlyOnKill"))
-                        .count();
-                    plugin.getLogger().info(String.format("- %s：%d 個配置", category, count));
+        private static int[] parseDropRange(String dropRange) {
+            try {
+                int minDrops;
+                int maxDrops;
+                if (dropRange.contains("-")) {
+                    String[] range = dropRange.split("-");
+                    if (range.length != 2) {
+                        return null;
+                    }
+                    minDrops = Integer.parseInt(range[0].trim());
+                    maxDrops = Integer.parseInt(range[1].trim());
+                } else {
+                    minDrops = maxDrops = Integer.parseInt(dropRange.trim());
                 }
+                return minDrops < 0 || minDrops > maxDrops ? null : new int[] { minDrops, maxDrops };
+            } catch (NumberFormatException e) {
+                return null;
             }
         }
     }
 
-    public int getCleanupInterval() { return cleanupInterval; }
-    public int getMaxRecentEntries() { return maxRecentEntries; }
-    public boolean isEnableMetrics() { return enableMetrics; }
-    public int getAsyncTimeout() { return asyncTimeout; }
-    public boolean isDebug() { return debug; }
-    public int getMetricsRetentionDays() { return metricsRetentionDays; }
-    public boolean isShowMessageInActionBar() { return showMessageInActionBar; }
-    public String getActionBarMessage() { return actionBarMessage; }
-    public Map<String, MobConfig> getMobConfigs() { return mobConfigs; }
-    
-    public String getEntityDisplayName(String entityType) {
-        return entityNames.getOrDefault(entityType, entityType);
-    }
-
     public static class MobConfig {
         public final boolean enabled;
         public final double min;
         public final double max;
         public final double dropChance;
         public final String numberOfDrops;
+        public final int minDrops;
+        public final int maxDrops;
+        public final double chanceThreshold;
         public final boolean onlyOnKill;
         public final String displayName;
+        public final MessageTemplate rewardMessage;
 
-        MobConfig(ConfigurationSection section, String entityType, ConfigManager configManager,
-                 ConfigurationSection defaults) {
-            this.enabled = section.getBoolean("Enabled", true);
-            this.min = section.getDouble("Min", defaults.getDouble("Min", 0));
-            this.max = section.getDouble("Max", defaults.getDouble("Max", 0));
-            this.dropChance = section.getDouble("DropChance", defaults.getDouble("DropChance", 0));
-            this.numberOfDrops = section.getString("NumberOfDrops", 
-                defaults.getString("NumberOfDrops", "1"));
-            this.onlyOnKill = section.getBoolean("OnlyOnKill", 
-                defaults.getBoolean("OnlyOnKill", true));
-            this.displayName = configManager.getEntityDisplayName(entityType);
+        MobConfig(boolean enabled, double min, double max, double dropChance, String numberOfDrops,
+                 int minDrops, int maxDrops, boolean onlyOnKill, String displayName, MessageTemplate rewardMessage) {
+            this.enabled = enabled;
+            this.min = min;
+            this.max = max;
+            this.dropChance = dropChance;
+            this.numberOfDrops = numberOfDrops;
+            this.minDrops = minDrops;
+            this.maxDrops = maxDrops;
+            this.chanceThreshold = dropChance / 100.0;
+            this.onlyOnKill = onlyOnKill;
+            this.displayName = displayName;
+            this.rewardMessage = rewardMessage;
         }
     }
-}
\ No newline at end of file
+}
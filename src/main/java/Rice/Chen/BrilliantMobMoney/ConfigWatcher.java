@@ -0,0 +1,95 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.logging.Level;
+
+public class ConfigWatcher implements Runnable {
+    private static final long DEBOUNCE_MILLIS = 500L;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            plugin.getDataFolder().toPath().register(watchService,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "無法監聽設定檔變更，自動重新載入已停用", e);
+            return;
+        }
+
+        thread = new Thread(this, "BrilliantMobMoney-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = containsConfigFile(key);
+                key.reset();
+
+                if (!changed) {
+                    continue;
+                }
+
+                Thread.sleep(DEBOUNCE_MILLIS);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+
+                configManager.reloadAsync().whenComplete((problems, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "偵測到設定檔變更，但重新載入失敗，沿用原有設定", error);
+                    } else {
+                        plugin.getLogger().info(String.format("偵測到設定檔變更，已自動重新載入（%d 個問題）", problems.size()));
+                    }
+                });
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private boolean containsConfigFile(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path) {
+                String name = path.getFileName().toString();
+                if (name.equals("config.yml") || name.equals("entity.yml")) {
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,344 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DamageLedger {
+    public static final int MAX_ATTACKERS = 4;
+    private static final int SEGMENTS = 64;
+    private static final int MIN_SEGMENT_ENTRIES = 16;
+    private static final long NANOS_PER_TICK = 50_000_000L;
+    private static final Credit[] NO_CREDITS = new Credit[0];
+
+    public enum Mode {
+        LAST_HIT,
+        SPLIT
+    }
+
+    public static class Credit {
+        public final Player player;
+        public final double share;
+
+        Credit(Player player, double share) {
+            this.player = player;
+            this.share = share;
+        }
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder overflows = new LongAdder();
+    private final long origin = System.nanoTime();
+
+    public DamageLedger(int maxEntities) {
+        int perSegment = Integer.highestOneBit(Math.max(MIN_SEGMENT_ENTRIES, (maxEntities + SEGMENTS - 1) / SEGMENTS) - 1) << 1;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public void recordDamage(int entityId, Player attacker, double damage, int windowTicks) {
+        update(entityId, attacker, (float) damage, false, windowTicks);
+    }
+
+    public void recordIgnite(int entityId, Player attacker, int windowTicks) {
+        update(entityId, attacker, 0f, true, windowTicks);
+    }
+
+    public void recordFireDamage(int entityId, double damage, int windowTicks) {
+        int hash = mix(entityId);
+        Segment segment = segments[hash >>> 26];
+        synchronized (segment) {
+            segment.addToIgniter(entityId, hash, (float) damage, now(), windowTicks);
+        }
+    }
+
+    public Credit[] resolve(int entityId, Player killer, Mode mode, double minShare, int windowTicks) {
+        int hash = mix(entityId);
+        Segment segment = segments[hash >>> 26];
+        Player[] attackers = new Player[MAX_ATTACKERS];
+        float[] damage = new float[MAX_ATTACKERS];
+        int[] hitAt = new int[MAX_ATTACKERS];
+        synchronized (segment) {
+            if (!segment.remove(entityId, hash, attackers, damage, hitAt)) {
+                return killer != null ? new Credit[]{new Credit(killer, 1.0)} : NO_CREDITS;
+            }
+        }
+
+        int oldest = now() - windowTicks;
+        if (mode == Mode.LAST_HIT) {
+            if (killer != null) {
+                return new Credit[]{new Credit(killer, 1.0)};
+            }
+            int latest = -1;
+            for (int i = 0; i < MAX_ATTACKERS; i++) {
+                if (attackers[i] != null && hitAt[i] >= oldest && (latest < 0 || hitAt[i] > hitAt[latest])) {
+                    latest = i;
+                }
+            }
+            return latest >= 0 && attackers[latest].isOnline()
+                ? new Credit[]{new Credit(attackers[latest], 1.0)} : NO_CREDITS;
+        }
+
+        double total = 0;
+        for (int i = 0; i < MAX_ATTACKERS; i++) {
+            if (attackers[i] == null || hitAt[i] < oldest || !attackers[i].isOnline()) {
+                attackers[i] = null;
+            } else {
+                total += damage[i];
+            }
+        }
+        if (total <= 0) {
+            return killer != null ? new Credit[]{new Credit(killer, 1.0)} : NO_CREDITS;
+        }
+
+        int count = 0;
+        double credited = 0;
+        for (int i = 0; i < MAX_ATTACKERS; i++) {
+            if (attackers[i] != null && damage[i] / total >= minShare) {
+                credited += damage[i];
+                count++;
+            } else {
+                attackers[i] = null;
+            }
+        }
+        if (count == 0) {
+            return killer != null ? new Credit[]{new Credit(killer, 1.0)} : NO_CREDITS;
+        }
+
+        Credit[] credits = new Credit[count];
+        int index = 0;
+        for (int i = 0; i < MAX_ATTACKERS; i++) {
+            if (attackers[i] != null) {
+                credits[index++] = new Credit(attackers[i], damage[i] / credited);
+            }
+        }
+        Arrays.sort(credits, (a, b) -> Double.compare(b.share, a.share));
+        return credits;
+    }
+
+    public void discard(int entityId) {
+        int hash = mix(entityId);
+        Segment segment = segments[hash >>> 26];
+        synchronized (segment) {
+            segment.remove(entityId, hash, null, null, null);
+        }
+    }
+
+    public int expire(int windowTicks) {
+        int oldest = now() - windowTicks;
+        int expired = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                expired += segment.expire(oldest);
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private void update(int entityId, Player attacker, float damage, boolean ignite, int windowTicks) {
+        int hash = mix(entityId);
+        Segment segment = segments[hash >>> 26];
+        boolean stored;
+        synchronized (segment) {
+            stored = segment.update(entityId, hash, attacker, damage, ignite, now(), windowTicks);
+        }
+        if (!stored) {
+            overflows.increment();
+        }
+    }
+
+    private int now() {
+        return (int) ((System.nanoTime() - origin) / NANOS_PER_TICK) + 1;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private static class Segment {
+        private final int[] keys;
+        private final int[] touched;
+        private final byte[] igniters;
+        private final Player[] attackers;
+        private final float[] damage;
+        private final int[] hitAt;
+        private final int mask;
+        private final int limit;
+        private int size;
+
+        Segment(int maxEntries) {
+            int capacity = maxEntries * 2;
+            keys = new int[capacity];
+            touched = new int[capacity];
+            igniters = new byte[capacity];
+            attackers = new Player[capacity * MAX_ATTACKERS];
+            damage = new float[capacity * MAX_ATTACKERS];
+            hitAt = new int[capacity * MAX_ATTACKERS];
+            mask = capacity - 1;
+            limit = maxEntries;
+        }
+
+        private boolean update(int key, int hash, Player attacker, float amount, boolean ignite, int now, int windowTicks) {
+            int index = find(key, hash);
+            if (touched[index] == 0) {
+                if (size >= limit && expire(now - windowTicks) == 0) {
+                    return false;
+                }
+                index = find(key, hash);
+                keys[index] = key;
+                size++;
+            } else if (touched[index] < now - windowTicks) {
+                resetSlots(index);
+            }
+            touched[index] = now;
+
+            int base = index * MAX_ATTACKERS;
+            int slot = -1;
+            int weakest = 0;
+            for (int i = 0; i < MAX_ATTACKERS; i++) {
+                Player current = attackers[base + i];
+                if (current == attacker || (slot < 0 && current == null)) {
+                    slot = i;
+                    if (current == attacker) {
+                        break;
+                    }
+                }
+                if (damage[base + i] < damage[base + weakest]) {
+                    weakest = i;
+                }
+            }
+            if (slot < 0) {
+                // 同一實體的攻擊者過多時，取代造成傷害最少的一位
+                slot = weakest;
+            }
+            if (attackers[base + slot] != attacker) {
+                attackers[base + slot] = attacker;
+                damage[base + slot] = 0;
+            }
+            damage[base + slot] += amount;
+            hitAt[base + slot] = now;
+            if (ignite) {
+                igniters[index] = (byte) (slot + 1);
+            }
+            return true;
+        }
+
+        private void addToIgniter(int key, int hash, float amount, int now, int windowTicks) {
+            int index = find(key, hash);
+            if (touched[index] == 0 || igniters[index] == 0 || touched[index] < now - windowTicks) {
+                return;
+            }
+            int slot = index * MAX_ATTACKERS + igniters[index] - 1;
+            damage[slot] += amount;
+            hitAt[slot] = now;
+            touched[index] = now;
+        }
+
+        private boolean remove(int key, int hash, Player[] outAttackers, float[] outDamage, int[] outHitAt) {
+            int index = find(key, hash);
+            if (touched[index] == 0) {
+                return false;
+            }
+            if (outAttackers != null) {
+                System.arraycopy(attackers, index * MAX_ATTACKERS, outAttackers, 0, MAX_ATTACKERS);
+                System.arraycopy(damage, index * MAX_ATTACKERS, outDamage, 0, MAX_ATTACKERS);
+                System.arraycopy(hitAt, index * MAX_ATTACKERS, outHitAt, 0, MAX_ATTACKERS);
+            }
+            delete(index);
+            return true;
+        }
+
+        private int expire(int oldest) {
+            int expired = 0;
+            int index = 0;
+            while (index < keys.length) {
+                if (touched[index] != 0 && touched[index] < oldest) {
+                    delete(index);
+                    expired++;
+                } else {
+                    index++;
+                }
+            }
+            return expired;
+        }
+
+        private int find(int key, int hash) {
+            int index = hash & mask;
+            while (touched[index] != 0 && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void delete(int hole) {
+            size--;
+            int index = hole;
+            while (true) {
+                index = (index + 1) & mask;
+                if (touched[index] == 0) {
+                    break;
+                }
+                int home = mix(keys[index]) & mask;
+                boolean movable = hole <= index ? home <= hole || home > index : home <= hole && home > index;
+                if (movable) {
+                    move(index, hole);
+                    hole = index;
+                }
+            }
+            touched[hole] = 0;
+            igniters[hole] = 0;
+            resetSlots(hole);
+        }
+
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            touched[to] = touched[from];
+            igniters[to] = igniters[from];
+            System.arraycopy(attackers, from * MAX_ATTACKERS, attackers, to * MAX_ATTACKERS, MAX_ATTACKERS);
+            System.arraycopy(damage, from * MAX_ATTACKERS, damage, to * MAX_ATTACKERS, MAX_ATTACKERS);
+            System.arraycopy(hitAt, from * MAX_ATTACKERS, hitAt, to * MAX_ATTACKERS, MAX_ATTACKERS);
+        }
+
+        private void resetSlots(int index) {
+            int base = index * MAX_ATTACKERS;
+            Arrays.fill(attackers, base, base + MAX_ATTACKERS, null);
+            Arrays.fill(damage, base, base + MAX_ATTACKERS, 0f);
+            Arrays.fill(hitAt, base, base + MAX_ATTACKERS, 0);
+            igniters[index] = 0;
+        }
+
+        private void clear() {
+            Arrays.fill(touched, 0);
+            Arrays.fill(igniters, (byte) 0);
+            Arrays.fill(attackers, null);
+            size = 0;
+        }
+    }
+}
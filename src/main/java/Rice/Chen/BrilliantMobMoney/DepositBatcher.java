@@ -0,0 +1,101 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.OfflinePlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+public class DepositBatcher {
+    private final RewardPipeline pipeline;
+    private final EconomyGateway economyGateway;
+    private final ConfigManager configManager;
+    private final Map<UUID, PendingDeposit> pending = new ConcurrentHashMap<>();
+
+    public DepositBatcher(RewardPipeline pipeline, EconomyGateway economyGateway, ConfigManager configManager) {
+        this.pipeline = pipeline;
+        this.economyGateway = economyGateway;
+        this.configManager = configManager;
+    }
+
+    public void add(OfflinePlayer player, double amount, Consumer<EconomyGateway.Result> onResolved) {
+        double maxAmount = configManager.getBatchMaxPendingAmount();
+        int maxKills = configManager.getBatchMaxPendingKills();
+
+        PendingDeposit deposit = pending.compute(player.getUniqueId(), (uuid, current) -> {
+            if (current == null) {
+                current = new PendingDeposit(player);
+            }
+            current.amount += amount;
+            current.callbacks.add(onResolved);
+            current.kills++;
+            return current;
+        });
+
+        if ((maxAmount > 0 && deposit.amount >= maxAmount) || (maxKills > 0 && deposit.kills >= maxKills)) {
+            flush(player.getUniqueId());
+        }
+    }
+
+    public void flush(UUID uuid) {
+        PendingDeposit deposit = pending.remove(uuid);
+        if (deposit != null) {
+            deposit(deposit);
+        }
+    }
+
+    public void flushAll() {
+        for (UUID uuid : pending.keySet()) {
+            flush(uuid);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void deposit(PendingDeposit deposit) {
+        if (deposit.amount <= 0) {
+            return;
+        }
+
+        try {
+            economyGateway.deposit(deposit.player, deposit.amount, result -> resolve(deposit, result)).thenAccept(result -> {
+                if (result == EconomyGateway.Result.FAILED || result == EconomyGateway.Result.ABANDONED) {
+                    pipeline.getLogger().warning(String.format("合併存款失敗：玩家=%s, 金額=%f, 擊殺數=%d",
+                        deposit.player.getName(), deposit.amount, deposit.kills));
+                } else if (configManager.isDebug()) {
+                    pipeline.getLogger().info(String.format("合併存款%s：玩家=%s, 金額=%f, 擊殺數=%d",
+                        result == EconomyGateway.Result.SUCCESS ? "完成" : "延後發放",
+                        deposit.player.getName(), deposit.amount, deposit.kills));
+                }
+            });
+        } catch (Exception e) {
+            pipeline.getLogger().log(Level.SEVERE, String.format(
+                "處理合併存款時發生錯誤：玩家=%s, 金額=%f", deposit.player.getName(), deposit.amount), e);
+            resolve(deposit, EconomyGateway.Result.ABANDONED);
+        }
+    }
+
+    // 整批的結果同時套用到批次內每一筆擊殺
+    private static void resolve(PendingDeposit deposit, EconomyGateway.Result result) {
+        for (Consumer<EconomyGateway.Result> callback : deposit.callbacks) {
+            callback.accept(result);
+        }
+    }
+
+    private static class PendingDeposit {
+        private final OfflinePlayer player;
+        private double amount;
+        private int kills;
+        private final List<Consumer<EconomyGateway.Result>> callbacks = new ArrayList<>();
+
+        PendingDeposit(OfflinePlayer player) {
+            this.player = player;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.OfflinePlayer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+public class EconomyGateway {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int INLINE_CALLS_PER_PUMP = 32;
+
+    public enum Result {
+        SUCCESS,
+        FAILED,
+        DEFERRED,
+        // 重試次數用盡或佇列已滿而放棄，結果未知，不結清日誌以便重啟後補發
+        ABANDONED
+    }
+
+    public enum State {
+        CLOSED("正常"),
+        OPEN("暫停呼叫"),
+        HALF_OPEN("嘗試恢復中");
+
+        public final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    private final RewardPipeline pipeline;
+    private final Economy economy;
+    private final ConfigManager configManager;
+    private final PlayerOrderedExecutor executor;
+    private final Semaphore permits;
+    private final BlockingQueue<PendingDeposit> queue;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile long openedAt;
+
+    public EconomyGateway(RewardPipeline pipeline, Economy economy, ConfigManager configManager, boolean offloadCalls) {
+        this.pipeline = pipeline;
+        this.economy = economy;
+        this.configManager = configManager;
+        int maxConcurrent = configManager.getEconomyMaxConcurrent();
+        this.permits = new Semaphore(maxConcurrent);
+        this.queue = new ArrayBlockingQueue<>(configManager.getEconomyRetryQueueSize());
+        this.executor = offloadCalls
+            ? new PlayerOrderedExecutor(createBackend(maxConcurrent), pipeline.getLogger(), pipeline::recordEconomyWait)
+            : null;
+    }
+
+    private ExecutorService createBackend(int maxConcurrent) {
+        if (configManager.isAsyncEconomy()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("BrilliantMobMoney-Economy-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "BrilliantMobMoney-Economy");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Result> deposit(OfflinePlayer player, double amount, Consumer<Result> onResolved) {
+        if (!configManager.isEconomyGuard()) {
+            if (executor == null) {
+                boolean success = callProvider(player, amount);
+                onResolved.accept(success ? Result.SUCCESS : Result.FAILED);
+                return CompletableFuture.completedFuture(success ? Result.SUCCESS : Result.FAILED);
+            }
+            return CompletableFuture.supplyAsync(() -> callProvider(player, amount), executorFor(player))
+                .handle((success, error) -> {
+                    if (error != null) {
+                        pipeline.getLogger().log(Level.SEVERE, String.format(
+                            "經濟插件處理存款時發生錯誤：玩家=%s, 金額=%f", player.getName(), amount), error);
+                        onResolved.accept(Result.ABANDONED);
+                        return Result.ABANDONED;
+                    }
+                    onResolved.accept(success ? Result.SUCCESS : Result.FAILED);
+                    return success ? Result.SUCCESS : Result.FAILED;
+                });
+        }
+
+        PendingDeposit deposit = new PendingDeposit(player, amount, onResolved);
+        if (!queue.offer(deposit)) {
+            pipeline.getLogger().warning(String.format("經濟操作佇列已滿，放棄發放獎勵：玩家=%s, 金額=%f",
+                player.getName(), amount));
+            onResolved.accept(Result.ABANDONED);
+            return CompletableFuture.completedFuture(Result.ABANDONED);
+        }
+        if (state.get() == State.OPEN) {
+            deposit.result.complete(Result.DEFERRED);
+        }
+        pump();
+        return deposit.result;
+    }
+
+    public void pump() {
+        int inlineBudget = INLINE_CALLS_PER_PUMP;
+        while (!queue.isEmpty()) {
+            // 先取得名額再判斷斷路器，避免切換為 HALF_OPEN 後卻因沒有名額而無法發出試探呼叫
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            State admitted = admit();
+            if (admitted == null) {
+                permits.release();
+                return;
+            }
+            PendingDeposit deposit = queue.poll();
+            if (deposit == null) {
+                permits.release();
+                if (admitted == State.HALF_OPEN) {
+                    state.compareAndSet(State.HALF_OPEN, State.OPEN);
+                }
+                return;
+            }
+            if (executor != null) {
+                executeAsync(deposit);
+            } else {
+                executeInline(deposit);
+                if (--inlineBudget <= 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public int getExecutorQueuedCount() {
+        return executor != null ? executor.getQueuedCount() : 0;
+    }
+
+    public void close() {
+        if (executor != null) {
+            executor.shutdown(configManager.getAsyncTimeout());
+        }
+
+        int remaining = queue.size();
+        if (remaining > 0) {
+            double total = 0;
+            for (PendingDeposit deposit : queue) {
+                total += deposit.amount;
+            }
+            pipeline.getLogger().warning(String.format("關閉時仍有 %d 筆獎勵未能發放（共 %f）", remaining, total));
+        }
+    }
+
+    // 回傳 CLOSED 代表可正常呼叫，HALF_OPEN 代表由此次呼叫負責試探，null 代表暫停呼叫
+    private State admit() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return State.CLOSED;
+        }
+        if (current == State.OPEN
+            && System.nanoTime() - openedAt >= TimeUnit.SECONDS.toNanos(configManager.getEconomyOpenSeconds())
+            && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return State.HALF_OPEN;
+        }
+        return null;
+    }
+
+    private void executeInline(PendingDeposit deposit) {
+        long start = System.nanoTime();
+        Boolean success;
+        try {
+            success = economy.depositPlayer(deposit.player, deposit.amount).transactionSuccess();
+        } catch (Exception e) {
+            pipeline.getLogger().log(Level.SEVERE, String.format(
+                "經濟插件處理存款時發生錯誤：玩家=%s, 金額=%f", deposit.player.getName(), deposit.amount), e);
+            success = null;
+        } finally {
+            permits.release();
+        }
+
+        boolean slow = System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(configManager.getAsyncTimeout());
+        if (slow) {
+            timeouts.increment();
+            pipeline.getLogger().warning(String.format("經濟操作超過逾時時間：玩家=%s, 耗時=%.1f ms",
+                deposit.player.getName(), (System.nanoTime() - start) / 1_000_000.0));
+        }
+        complete(deposit, success, slow);
+    }
+
+    private void executeAsync(PendingDeposit deposit) {
+        CompletableFuture<Boolean> call = CompletableFuture.supplyAsync(
+            () -> economy.depositPlayer(deposit.player, deposit.amount).transactionSuccess(), executorFor(deposit.player));
+
+        call.copy().orTimeout(configManager.getAsyncTimeout(), TimeUnit.MILLISECONDS).whenComplete((success, error) -> {
+            if (error instanceof TimeoutException) {
+                deposit.timedOut = true;
+                timeouts.increment();
+                recordFailure();
+                deposit.result.complete(Result.DEFERRED);
+                pipeline.getLogger().warning(String.format("經濟操作逾時，改為背景等待結果：玩家=%s, 金額=%f",
+                    deposit.player.getName(), deposit.amount));
+            }
+        });
+
+        call.whenComplete((success, error) -> {
+            permits.release();
+            if (error != null) {
+                pipeline.getLogger().log(Level.SEVERE, String.format(
+                    "經濟插件處理存款時發生錯誤：玩家=%s, 金額=%f", deposit.player.getName(), deposit.amount), error);
+            }
+            complete(deposit, error == null ? success : null, false);
+            pump();
+        });
+    }
+
+    private void complete(PendingDeposit deposit, Boolean success, boolean slow) {
+        if (success != null) {
+            pipeline.recordDeposit(success);
+        }
+
+        if (deposit.timedOut) {
+            // 逾時已計入一次失敗，之後的失敗不重複計算；逾時後仍成功代表經濟插件已恢復回應
+            if (success == null || !success) {
+                deposit.refused = success != null;
+                park(deposit);
+                return;
+            }
+            recordSuccess();
+            deposit.onResolved.accept(Result.SUCCESS);
+            if (configManager.isDebug()) {
+                pipeline.getLogger().info(String.format("逾時的經濟操作已完成：玩家=%s, 金額=%f",
+                    deposit.player.getName(), deposit.amount));
+            }
+            return;
+        }
+
+        // 發生例外或經濟插件回應失敗都計入斷路器，並放入重試佇列等待經濟插件恢復
+        if (success == null || !success) {
+            recordFailure();
+            deposit.refused = success != null;
+            deposit.result.complete(Result.DEFERRED);
+            park(deposit);
+            return;
+        }
+
+        deposit.onResolved.accept(Result.SUCCESS);
+        if (slow) {
+            recordFailure();
+        } else {
+            recordSuccess();
+        }
+        deposit.result.complete(Result.SUCCESS);
+    }
+
+    private void park(PendingDeposit deposit) {
+        PendingDeposit retry = new PendingDeposit(deposit.player, deposit.amount, deposit.onResolved);
+        retry.attempts = deposit.attempts + 1;
+        retry.result.complete(Result.DEFERRED);
+        if (retry.attempts >= MAX_ATTEMPTS || !queue.offer(retry)) {
+            pipeline.getLogger().warning(String.format("無法補發獎勵，已放棄：玩家=%s, 金額=%f, 嘗試次數=%d",
+                deposit.player.getName(), deposit.amount, retry.attempts));
+            // 最後一次是經濟插件明確拒絕時視為失敗並結清日誌，否則結果未知，保留日誌於重啟後補發
+            deposit.onResolved.accept(deposit.refused ? Result.FAILED : Result.ABANDONED);
+        }
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            pipeline.getLogger().info("經濟插件已恢復，繼續發放獎勵，待補發：" + queue.size());
+        }
+    }
+
+    private void recordFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= configManager.getEconomyFailureThreshold())) {
+            if (state.compareAndSet(current, State.OPEN)) {
+                openedAt = System.nanoTime();
+                for (PendingDeposit waiting : queue) {
+                    waiting.result.complete(Result.DEFERRED);
+                }
+                pipeline.getLogger().warning(String.format("經濟插件連續失敗 %d 次，暫停呼叫 %d 秒",
+                    failures, configManager.getEconomyOpenSeconds()));
+            }
+        }
+    }
+
+    private Executor executorFor(OfflinePlayer player) {
+        return executor.forPlayer(player.getUniqueId());
+    }
+
+    private boolean callProvider(OfflinePlayer player, double amount) {
+        boolean success = economy.depositPlayer(player, amount).transactionSuccess();
+        pipeline.recordDeposit(success);
+        return success;
+    }
+
+    private static class PendingDeposit {
+        private final OfflinePlayer player;
+        private final double amount;
+        private final Consumer<Result> onResolved;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private volatile boolean timedOut;
+        private volatile boolean refused;
+        private int attempts;
+
+        PendingDeposit(OfflinePlayer player, double amount, Consumer<Result> onResolved) {
+            this.player = player;
+            this.amount = amount;
+            this.onResolved = onResolved;
+        }
+    }
+}
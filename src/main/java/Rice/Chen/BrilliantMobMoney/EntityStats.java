@@ -0,0 +1,144 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+public class EntityStats {
+    public static final long TICK_SECONDS = 5L;
+    private static final int[] WINDOW_MINUTES = {1, 5, 15};
+
+    public enum Stat {
+        SEEN("seen", "擊殺"),
+        PASSED("passed", "通過機率"),
+        REWARDED("rewarded", "發放"),
+        PAID("paid", "金額");
+
+        public final String key;
+        public final String displayName;
+
+        Stat(String key, String displayName) {
+            this.key = key;
+            this.displayName = displayName;
+        }
+
+        public static Stat fromKey(String key) {
+            for (Stat stat : values()) {
+                if (stat.key.equalsIgnoreCase(key)) {
+                    return stat;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final int typeCount = EntityType.values().length;
+    private final int statCount = Stat.values().length;
+    private final LongAdder[] counts = new LongAdder[Stat.PAID.ordinal() * typeCount];
+    private final DoubleAdder[] paid = new DoubleAdder[typeCount];
+    private final double[] alphas = new double[WINDOW_MINUTES.length];
+
+    private final double[] lastTotals = new double[statCount * typeCount];
+    private final double[] rates = new double[WINDOW_MINUTES.length * statCount * typeCount];
+    private boolean initialized;
+
+    public EntityStats() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+        for (int i = 0; i < paid.length; i++) {
+            paid[i] = new DoubleAdder();
+        }
+        for (int i = 0; i < alphas.length; i++) {
+            alphas[i] = 1 - Math.exp(-TICK_SECONDS / 60.0 / WINDOW_MINUTES[i]);
+        }
+    }
+
+    public void recordSeen(EntityType type) {
+        counts[Stat.SEEN.ordinal() * typeCount + type.ordinal()].increment();
+    }
+
+    public void recordPassed(EntityType type) {
+        counts[Stat.PASSED.ordinal() * typeCount + type.ordinal()].increment();
+    }
+
+    public void recordRewarded(EntityType type, double amount) {
+        counts[Stat.REWARDED.ordinal() * typeCount + type.ordinal()].increment();
+        paid[type.ordinal()].add(amount);
+    }
+
+    public void recordPaid(EntityType type, double amount) {
+        paid[type.ordinal()].add(amount);
+    }
+
+    public double getTotal(Stat stat, EntityType type) {
+        if (stat == Stat.PAID) {
+            return paid[type.ordinal()].sum();
+        }
+        return counts[stat.ordinal() * typeCount + type.ordinal()].sum();
+    }
+
+    public synchronized void tick() {
+        for (Stat stat : Stat.values()) {
+            for (EntityType type : EntityType.values()) {
+                int index = stat.ordinal() * typeCount + type.ordinal();
+                double total = getTotal(stat, type);
+                double perSecond = (total - lastTotals[index]) / TICK_SECONDS;
+                lastTotals[index] = total;
+                for (int window = 0; window < WINDOW_MINUTES.length; window++) {
+                    int rateIndex = window * statCount * typeCount + index;
+                    rates[rateIndex] = initialized
+                        ? rates[rateIndex] + alphas[window] * (perSecond - rates[rateIndex])
+                        : perSecond;
+                }
+            }
+        }
+        initialized = true;
+    }
+
+    public synchronized double getRate(Stat stat, int windowMinutes, EntityType type) {
+        return rates[windowIndex(windowMinutes) * statCount * typeCount + stat.ordinal() * typeCount + type.ordinal()];
+    }
+
+    public List<String> describeTop(Stat sortBy, int limit) {
+        List<EntityType> ranked = new ArrayList<>();
+        for (EntityType type : EntityType.values()) {
+            if (getTotal(Stat.SEEN, type) > 0) {
+                ranked.add(type);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble((EntityType type) -> getRate(sortBy, 5, type))
+            .thenComparingDouble(type -> getTotal(sortBy, type))
+            .reversed());
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("§6==========[實體排行：%s]==========", sortBy.displayName));
+        lines.add("§7速率為 1 / 5 / 15 分鐘指數加權平均（每秒）");
+        if (ranked.isEmpty()) {
+            lines.add("§7目前尚無任何紀錄");
+        }
+        for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+            EntityType type = ranked.get(i);
+            lines.add(String.format("§e%d. §f%s §7｜ §f擊殺 §e%d §7｜ §f通過 §e%d §7｜ §f發放 §e%d §7｜ §f金額 §e%s",
+                i + 1, type.name(), (long) getTotal(Stat.SEEN, type), (long) getTotal(Stat.PASSED, type),
+                (long) getTotal(Stat.REWARDED, type), MessageTemplate.formatAmount(getTotal(Stat.PAID, type))));
+            lines.add(String.format("   §7%s速率：§e%.2f / %.2f / %.2f",
+                sortBy.displayName, getRate(sortBy, 1, type), getRate(sortBy, 5, type), getRate(sortBy, 15, type)));
+        }
+        lines.add("§6==============================");
+        return lines;
+    }
+
+    private static int windowIndex(int windowMinutes) {
+        for (int i = 0; i < WINDOW_MINUTES.length; i++) {
+            if (WINDOW_MINUTES[i] >= windowMinutes) {
+                return i;
+            }
+        }
+        return WINDOW_MINUTES.length - 1;
+    }
+}
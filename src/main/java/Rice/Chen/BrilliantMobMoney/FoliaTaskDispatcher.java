@@ -0,0 +1,52 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.concurrent.TimeUnit;
+
+public class FoliaTaskDispatcher implements TaskDispatcher {
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final JavaPlugin plugin;
+    private final AsyncScheduler asyncScheduler;
+
+    public FoliaTaskDispatcher(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.asyncScheduler = plugin.getServer().getAsyncScheduler();
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task, Runnable retired) {
+        ScheduledTask scheduled = player.getScheduler().run(plugin, (t) -> task.run(), retired);
+        if (scheduled == null) {
+            retired.run();
+        }
+    }
+
+    @Override
+    public void runForPlayerLater(Player player, Runnable task, Runnable retired, long delayTicks) {
+        ScheduledTask scheduled = player.getScheduler().runDelayed(plugin, (t) -> task.run(), retired, Math.max(1, delayTicks));
+        if (scheduled == null) {
+            retired.run();
+        }
+    }
+
+    @Override
+    public void runEconomy(Runnable task) {
+        asyncScheduler.runNow(plugin, (t) -> task.run());
+    }
+
+    @Override
+    public void runEconomyTimer(Runnable task, long periodTicks) {
+        long periodMillis = periodTicks * MILLIS_PER_TICK;
+        asyncScheduler.runAtFixedRate(plugin, (t) -> task.run(), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long periodTicks) {
+        runEconomyTimer(task, periodTicks);
+    }
+}
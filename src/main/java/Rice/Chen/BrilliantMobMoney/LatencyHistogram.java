@@ -0,0 +1,170 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_MASK = (1 << SUB_BUCKET_BITS) - 1;
+    private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+    private static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final int SLOTS = 60;
+
+    private final Slot[] slots = new Slot[SLOTS];
+    private final long origin = System.nanoTime();
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        Slot slot = currentSlot();
+        slot.counts.incrementAndGet(bucketIndex(value));
+        slot.count.incrementAndGet();
+        slot.sum.addAndGet(value);
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max;
+        while (value > (max = slot.max.get()) && !slot.max.compareAndSet(max, value)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public Summary summarize(int windowMinutes) {
+        int windowSlots = (int) Math.min(SLOTS, Math.max(1, TimeUnit.MINUTES.toNanos(windowMinutes) / SLOT_NANOS));
+        long epoch = currentEpoch();
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+
+        for (long e = epoch - windowSlots + 1; e <= epoch; e++) {
+            if (e < 0) {
+                continue;
+            }
+            Slot slot = slots[(int) (e % SLOTS)];
+            if (slot.epoch.get() != e) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] += slot.counts.get(i);
+            }
+            count += slot.count.get();
+            sum += slot.sum.get();
+            max = Math.max(max, slot.max.get());
+        }
+
+        if (count == 0) {
+            return Summary.EMPTY;
+        }
+        return new Summary(count, sum / (double) count,
+            percentile(merged, count, 0.50, max), percentile(merged, count, 0.90, max),
+            percentile(merged, count, 0.99, max), percentile(merged, count, 0.999, max), max);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    private Slot currentSlot() {
+        long epoch = currentEpoch();
+        Slot slot = slots[(int) (epoch % SLOTS)];
+        long slotEpoch = slot.epoch.get();
+        if (slotEpoch != epoch && slotEpoch < epoch && slot.epoch.compareAndSet(slotEpoch, epoch)) {
+            slot.reset();
+        }
+        return slot;
+    }
+
+    private long currentEpoch() {
+        return (System.nanoTime() - origin) / SLOT_NANOS;
+    }
+
+    private static long percentile(long[] buckets, long count, double quantile, long max) {
+        long target = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketIndex(long value) {
+        if (value <= SUB_BUCKET_MASK) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) ((value >>> shift) & SUB_BUCKET_MASK);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index <= SUB_BUCKET_MASK) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long subBucket = index & SUB_BUCKET_MASK;
+        return ((SUB_BUCKET_MASK + 2 + subBucket) << shift) - 1;
+    }
+
+    private static class Slot {
+        private final AtomicLong epoch = new AtomicLong(-1);
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+    }
+
+    public static class Summary {
+        public static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, 0, 0);
+
+        public final long count;
+        public final double meanNanos;
+        public final long p50;
+        public final long p90;
+        public final long p99;
+        public final long p999;
+        public final long max;
+
+        Summary(long count, double meanNanos, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.meanNanos = meanNanos;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public double meanMillis() {
+            return meanNanos / 1_000_000.0;
+        }
+
+        public String format() {
+            return String.format("p50 %.3f / p90 %.3f / p99 %.3f / p999 %.3f / max %.3f ms（%d 筆）",
+                p50 / 1_000_000.0, p90 / 1_000_000.0, p99 / 1_000_000.0, p999 / 1_000_000.0, max / 1_000_000.0, count);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+final class LuckPermsHook {
+    private LuckPermsHook() {
+    }
+
+    static boolean register(JavaPlugin plugin, PermissionMultipliers multipliers) {
+        LuckPerms luckPerms = plugin.getServer().getServicesManager().load(LuckPerms.class);
+        if (luckPerms == null) {
+            return false;
+        }
+
+        EventBus eventBus = luckPerms.getEventBus();
+        eventBus.subscribe(plugin, UserDataRecalculateEvent.class, event -> {
+            Player player = plugin.getServer().getPlayer(event.getUser().getUniqueId());
+            if (player != null) {
+                multipliers.refresh(player);
+            }
+        });
+        eventBus.subscribe(plugin, GroupDataRecalculateEvent.class,
+            event -> multipliers.refreshAll(plugin.getServer().getOnlinePlayers()));
+        return true;
+    }
+}
@@ -0,0 +1,131 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.legacy.LegacyFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MessageTemplate {
+    private static final char SECTION_CHAR = '§';
+
+    private final Component[] segments;
+    private final Style[] slotStyles;
+    private final int[] slotPlaceholders;
+
+    private MessageTemplate(Component[] segments, Style[] slotStyles, int[] slotPlaceholders) {
+        this.segments = segments;
+        this.slotStyles = slotStyles;
+        this.slotPlaceholders = slotPlaceholders;
+    }
+
+    public static MessageTemplate compile(String raw, String... placeholders) {
+        List<Component> segments = new ArrayList<>();
+        List<Style> slotStyles = new ArrayList<>();
+        List<Integer> slotPlaceholders = new ArrayList<>();
+        String activeCodes = "";
+        int position = 0;
+
+        while (true) {
+            int next = -1;
+            int placeholder = -1;
+            for (int i = 0; i < placeholders.length; i++) {
+                int index = raw.indexOf(placeholders[i], position);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    placeholder = i;
+                }
+            }
+
+            String literal = next < 0 ? raw.substring(position) : raw.substring(position, next);
+            segments.add(deserialize(activeCodes, literal));
+            activeCodes = trackCodes(activeCodes, literal);
+
+            if (next < 0) {
+                break;
+            }
+            slotStyles.add(toStyle(activeCodes));
+            slotPlaceholders.add(placeholder);
+            position = next + placeholders[placeholder].length();
+        }
+
+        int[] slots = new int[slotPlaceholders.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = slotPlaceholders.get(i);
+        }
+        return new MessageTemplate(segments.toArray(new Component[0]), slotStyles.toArray(new Style[0]), slots);
+    }
+
+    public Component render(String... values) {
+        ComponentLike[] parts = new ComponentLike[segments.length + slotStyles.length];
+        int part = 0;
+        for (int i = 0; i < slotStyles.length; i++) {
+            parts[part++] = segments[i];
+            parts[part++] = Component.text(values[slotPlaceholders[i]], slotStyles[i]);
+        }
+        parts[part] = segments[segments.length - 1];
+        return Component.textOfChildren(parts);
+    }
+
+    public static String formatAmount(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15) {
+            return String.format("%.2f", value);
+        }
+        long cents = Math.round(value * 100.0);
+        StringBuilder builder = new StringBuilder(20);
+        if (cents < 0) {
+            builder.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        builder.append(cents / 100).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction).toString();
+    }
+
+    private static Component deserialize(String activeCodes, String literal) {
+        if (literal.isEmpty()) {
+            return Component.empty();
+        }
+        return LegacyComponentSerializer.legacySection().deserialize(activeCodes + literal);
+    }
+
+    private static String trackCodes(String activeCodes, String literal) {
+        StringBuilder codes = new StringBuilder(activeCodes);
+        for (int i = 0; i < literal.length() - 1; i++) {
+            if (literal.charAt(i) != SECTION_CHAR) {
+                continue;
+            }
+            char code = literal.charAt(++i);
+            LegacyFormat format = LegacyComponentSerializer.parseChar(code);
+            if (format == null) {
+                continue;
+            }
+            if (format.color() != null || format.reset()) {
+                codes.setLength(0);
+            }
+            codes.append(SECTION_CHAR).append(code);
+        }
+        return codes.toString();
+    }
+
+    private static Style toStyle(String activeCodes) {
+        Style style = Style.empty();
+        for (int i = 1; i < activeCodes.length(); i += 2) {
+            LegacyFormat format = LegacyComponentSerializer.parseChar(activeCodes.charAt(i));
+            if (format == null || format.reset()) {
+                style = Style.empty();
+            } else if (format.color() != null) {
+                style = Style.empty().color(format.color());
+            } else if (format.decoration() != null) {
+                style = style.decoration(format.decoration(), true);
+            }
+        }
+        return style;
+    }
+}
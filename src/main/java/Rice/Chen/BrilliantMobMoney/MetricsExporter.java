@@ -0,0 +1,176 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+public class MetricsExporter {
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final JavaPlugin plugin;
+    private final MetricsManager metricsManager;
+    private final Map<String, LongSupplier> queueDepths = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsExporter(JavaPlugin plugin, MetricsManager metricsManager) {
+        this.plugin = plugin;
+        this.metricsManager = metricsManager;
+    }
+
+    public void registerQueue(String name, LongSupplier depth) {
+        queueDepths.put(name, depth);
+    }
+
+    public void start(String host, int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, String.format("無法啟動效能指標輸出端點：%s:%d", host, port), e);
+            return;
+        }
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BrilliantMobMoney-Exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        plugin.getLogger().info(String.format("效能指標輸出端點已啟動：http://%s:%d/metrics", host, port));
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        counter(out, "bmm_kills_seen", "Entity death events handled, including unconfigured entity types", metricsManager.getKillsSeen());
+        counter(out, "bmm_kills_rewarded", "Kills that resulted in a reward", metricsManager.getKillsRewarded());
+        counter(out, "bmm_deposits_issued", "Economy deposit calls issued", metricsManager.getDepositsIssued());
+        counter(out, "bmm_deposits_failed", "Economy deposit calls that failed", metricsManager.getDepositsFailed());
+
+        out.append("# TYPE bmm_kills_skipped counter\n");
+        out.append("# HELP bmm_kills_skipped Kills that were not rewarded, by reason\n");
+        for (SkipReason reason : SkipReason.values()) {
+            out.append("bmm_kills_skipped_total{reason=\"").append(reason.key).append("\"} ")
+                .append(metricsManager.getKillsSkipped(reason)).append('\n');
+        }
+
+        EntityStats entityStats = metricsManager.getEntityStats();
+        out.append("# TYPE bmm_entity_kills counter\n");
+        out.append("# HELP bmm_entity_kills Kills per entity type, by stage reached\n");
+        for (EntityType type : EntityType.values()) {
+            if (entityStats.getTotal(EntityStats.Stat.SEEN, type) == 0) {
+                continue;
+            }
+            for (EntityStats.Stat stat : EntityStats.Stat.values()) {
+                if (stat != EntityStats.Stat.PAID) {
+                    out.append("bmm_entity_kills_total{entity=\"").append(type.name()).append("\",stage=\"")
+                        .append(stat.key).append("\"} ").append((long) entityStats.getTotal(stat, type)).append('\n');
+                }
+            }
+        }
+
+        out.append("# TYPE bmm_entity_paid counter\n");
+        out.append("# HELP bmm_entity_paid Total reward amount paid per entity type\n");
+        for (EntityType type : EntityType.values()) {
+            if (entityStats.getTotal(EntityStats.Stat.SEEN, type) > 0) {
+                out.append("bmm_entity_paid_total{entity=\"").append(type.name()).append("\"} ")
+                    .append(String.format(Locale.ROOT, "%.2f", entityStats.getTotal(EntityStats.Stat.PAID, type))).append('\n');
+            }
+        }
+
+        out.append("# TYPE bmm_reward_latency_seconds summary\n");
+        out.append("# HELP bmm_reward_latency_seconds End-to-end reward latency, quantiles over the last minute\n");
+        summary(out, "bmm_reward_latency_seconds", "", metricsManager.getProcessingTimes());
+
+        out.append("# TYPE bmm_economy_wait_seconds summary\n");
+        out.append("# HELP bmm_economy_wait_seconds Time economy calls wait in the per-player executor, quantiles over the last minute\n");
+        summary(out, "bmm_economy_wait_seconds", "", metricsManager.getEconomyWaitTimes());
+
+        out.append("# TYPE bmm_reward_drain_seconds summary\n");
+        out.append("# HELP bmm_reward_drain_seconds Time spent per tick draining the reward queue, quantiles over the last minute\n");
+        summary(out, "bmm_reward_drain_seconds", "", metricsManager.getRewardDrainTimes());
+
+        out.append("# TYPE bmm_phase_latency_seconds summary\n");
+        out.append("# HELP bmm_phase_latency_seconds Reward pipeline phase latency, quantiles over the last minute\n");
+        for (RewardPhase phase : RewardPhase.values()) {
+            summary(out, "bmm_phase_latency_seconds", "phase=\"" + phase.key + "\",", metricsManager.getPhaseTimes(phase));
+        }
+
+        out.append("# TYPE bmm_queue_depth gauge\n");
+        out.append("# HELP bmm_queue_depth Entries currently waiting in internal queues\n");
+        for (Map.Entry<String, LongSupplier> entry : queueDepths.entrySet()) {
+            out.append("bmm_queue_depth{queue=\"").append(entry.getKey()).append("\"} ")
+                .append(entry.getValue().getAsLong()).append('\n');
+        }
+
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append(name).append("_total ").append(value).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        LatencyHistogram.Summary window = histogram.summarize(1);
+        quantile(out, name, labels, "0.5", window.p50);
+        quantile(out, name, labels, "0.9", window.p90);
+        quantile(out, name, labels, "0.99", window.p99);
+        quantile(out, name, labels, "0.999", window.p999);
+        String suffixLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        out.append(name).append("_count").append(suffixLabels).append(' ').append(histogram.getTotalCount()).append('\n');
+        out.append(name).append("_sum").append(suffixLabels).append(' ')
+            .append(seconds(histogram.getTotalNanos())).append('\n');
+    }
+
+    private static void quantile(StringBuilder out, String name, String labels, String quantile, long nanos) {
+        out.append(name).append('{').append(labels).append("quantile=\"").append(quantile).append("\"} ")
+            .append(seconds(nanos)).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,188 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class MetricsLog {
+    private static final String EXTENSION = ".jsonl";
+    private static final String COMPRESSED_EXTENSION = ".jsonl.gz";
+    private static final String LEGACY_EXTENSION = ".yml";
+
+    private final Logger logger;
+    private final Path metricsFolder;
+    private final IntSupplier retentionDays;
+    private final boolean compressClosedDays;
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BrilliantMobMoney-Metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LocalDate currentDate;
+    private BufferedWriter currentWriter;
+
+    public MetricsLog(Logger logger, Path metricsFolder, IntSupplier retentionDays, boolean compressClosedDays) {
+        this.logger = logger;
+        this.metricsFolder = metricsFolder;
+        this.retentionDays = retentionDays;
+        this.compressClosedDays = compressClosedDays;
+        writer.scheduleAtFixedRate(this::maintain, 1, TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    public void append(String record) {
+        writer.execute(() -> {
+            try {
+                BufferedWriter out = writerFor(LocalDate.now());
+                out.write(record);
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "無法儲存效能指標資料", e);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> scanDay(LocalDate date, Function<Stream<String>, T> reader) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path plain = metricsFolder.resolve(date.format(dateFormatter) + EXTENSION);
+            Path compressed = metricsFolder.resolve(date.format(dateFormatter) + COMPRESSED_EXTENSION);
+            try {
+                if (Files.exists(plain)) {
+                    try (BufferedReader in = Files.newBufferedReader(plain, StandardCharsets.UTF_8)) {
+                        return reader.apply(in.lines());
+                    }
+                } else if (Files.exists(compressed)) {
+                    try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                            new GZIPInputStream(Files.newInputStream(compressed)), StandardCharsets.UTF_8))) {
+                        return reader.apply(in.lines());
+                    }
+                }
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("無法讀取效能指標檔案：" + date, e);
+            }
+        }, writer);
+    }
+
+    public void close() {
+        writer.execute(this::closeCurrent);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BufferedWriter writerFor(LocalDate date) throws IOException {
+        if (!date.equals(currentDate) || currentWriter == null) {
+            closeCurrent();
+            Files.createDirectories(metricsFolder);
+            currentWriter = Files.newBufferedWriter(metricsFolder.resolve(date.format(dateFormatter) + EXTENSION),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            currentDate = date;
+            if (compressClosedDays) {
+                compressClosedDays();
+            }
+        }
+        return currentWriter;
+    }
+
+    private void closeCurrent() {
+        if (currentWriter != null) {
+            try {
+                currentWriter.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "關閉效能指標檔案時發生錯誤", e);
+            }
+            currentWriter = null;
+        }
+    }
+
+    private void maintain() {
+        deleteExpired();
+        if (compressClosedDays) {
+            compressClosedDays();
+        }
+    }
+
+    private void deleteExpired() {
+        LocalDate cutoffDate = LocalDate.now().minusDays(retentionDays.getAsInt());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(metricsFolder)) {
+            for (Path file : files) {
+                LocalDate fileDate = parseDate(file);
+                if (fileDate != null && fileDate.isBefore(cutoffDate)) {
+                    Files.deleteIfExists(file);
+                    logger.info("已刪除舊的效能指標檔案：" + file.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "清理舊的效能指標檔案時發生錯誤", e);
+        }
+    }
+
+    private void compressClosedDays() {
+        LocalDate today = LocalDate.now();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(metricsFolder, "*" + EXTENSION)) {
+            for (Path file : files) {
+                LocalDate fileDate = parseDate(file);
+                if (fileDate == null || !fileDate.isBefore(today)) {
+                    continue;
+                }
+                Path target = file.resolveSibling(file.getFileName() + ".gz");
+                try (InputStream in = Files.newInputStream(file);
+                     OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+                    in.transferTo(out);
+                }
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "壓縮效能指標檔案時發生錯誤", e);
+        }
+    }
+
+    private LocalDate parseDate(Path file) {
+        String name = file.getFileName().toString();
+        String date;
+        if (name.endsWith(COMPRESSED_EXTENSION)) {
+            date = name.substring(0, name.length() - COMPRESSED_EXTENSION.length());
+        } else if (name.endsWith(EXTENSION)) {
+            date = name.substring(0, name.length() - EXTENSION.length());
+        } else if (name.endsWith(LEGACY_EXTENSION)) {
+            date = name.substring(0, name.length() - LEGACY_EXTENSION.length());
+        } else {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date, dateFormatter);
+        } catch (DateTimeParseException e) {
+            logger.warning("無法解析檔案日期：" + name);
+            return null;
+        }
+    }
+}
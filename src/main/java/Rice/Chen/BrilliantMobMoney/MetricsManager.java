@@ -1,50 +1,67 @@
 package Rice.Chen.BrilliantMobMoney;
 
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.logging.Level;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
 
 public class MetricsManager {
-    private final JavaPlugin plugin;
-    private final File metricsFolder;
-    private YamlConfiguration currentMetrics;
-    private String currentDate;
-    private final DateTimeFormatter dateFormatter;
+    private final MetricsLog metricsLog;
     private final DateTimeFormatter timeFormatter;
 
-    private final Queue<Long> processingTimes = new LinkedList<>();
-    private final int MAX_SAMPLES = 600;
-    private final AtomicLong totalProcessingTime = new AtomicLong(0);
-    private long lastUpdateTime = System.nanoTime();
-    private double lastPluginMspt = 0;
-    private double lastPluginTpsImpact = 0;
-
-    public MetricsManager(JavaPlugin plugin) {
-        this.plugin = plugin;
-        this.metricsFolder = new File(plugin.getDataFolder(), "metrics");
-        this.dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        this.timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private final LatencyHistogram processingTimes = new LatencyHistogram();
+    private final LatencyHistogram[] phaseTimes = new LatencyHistogram[RewardPhase.values().length];
+    private final int entityTypeCount = EntityType.values().length;
+    private final AtomicLongArray phaseTypeNanos = new AtomicLongArray(RewardPhase.values().length * entityTypeCount);
+    private final AtomicLongArray phaseTypeCounts = new AtomicLongArray(RewardPhase.values().length * entityTypeCount);
+    private final LongAdder killsSeen = new LongAdder();
+    private final LongAdder killsRewarded = new LongAdder();
+    private final LongAdder depositsIssued = new LongAdder();
+    private final LongAdder depositsFailed = new LongAdder();
+    private final LongAdder[] killsSkipped = new LongAdder[SkipReason.values().length];
+    private final EntityStats entityStats = new EntityStats();
+    private final LatencyHistogram economyWaitTimes = new LatencyHistogram();
+    private volatile IntSupplier economyQueueDepth = () -> 0;
+    private final LatencyHistogram rewardDrainTimes = new LatencyHistogram();
+    private volatile IntSupplier rewardQueueDepth = () -> 0;
+    private volatile double lastPluginMspt = 0;
+    private volatile double lastPluginTpsImpact = 0;
+
+    public MetricsManager(JavaPlugin plugin, ConfigManager configManager) {
+        this(createMetricsLog(plugin, configManager));
+    }
+
+    MetricsManager(MetricsLog metricsLog) {
+        this.metricsLog = metricsLog;
+        this.timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
         
+        for (int i = 0; i < phaseTimes.length; i++) {
+            phaseTimes[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < killsSkipped.length; i++) {
+            killsSkipped[i] = new LongAdder();
+        }
+    }
+
+    private static MetricsLog createMetricsLog(JavaPlugin plugin, ConfigManager configManager) {
+        File metricsFolder = new File(plugin.getDataFolder(), "metrics");
         if (!metricsFolder.exists()) {
             metricsFolder.mkdirs();
         }
         
-        initializeCurrentDateFile();
-    }
-    
-    private void initializeCurrentDateFile() {
-        currentDate = LocalDate.now().format(dateFormatter);
-        File metricsFile = new File(metricsFolder, currentDate + ".yml");
-        currentMetrics = YamlConfiguration.loadConfiguration(metricsFile);
+        return new MetricsLog(plugin.getLogger(), metricsFolder.toPath(),
+            configManager::getMetricsRetentionDays, configManager.isCompressOldMetrics());
     }
 
     public long startTracking() {
@@ -52,29 +69,115 @@ public class MetricsManager {
     }
 
     public void endTracking(long startTime) {
-        long processingTime = System.nanoTime() - startTime;
-        synchronized (processingTimes) {
-            processingTimes.offer(processingTime);
-            if (processingTimes.size() > MAX_SAMPLES) {
-                processingTimes.poll();
+        processingTimes.record(System.nanoTime() - startTime);
+    }
+
+    public void recordKillSeen(EntityType type) {
+        killsSeen.increment();
+        entityStats.recordSeen(type);
+    }
+
+    public void recordChancePassed(EntityType type) {
+        entityStats.recordPassed(type);
+    }
+
+    public void recordSkip(SkipReason reason) {
+        killsSkipped[reason.ordinal()].increment();
+    }
+
+    public void recordRewarded(EntityType type, double amount) {
+        killsRewarded.increment();
+        entityStats.recordRewarded(type, amount);
+    }
+
+    // 分攤擊殺的其他份額只計入金額，擊殺數已由第一份計算
+    public void recordPaid(EntityType type, double amount) {
+        entityStats.recordPaid(type, amount);
+    }
+
+    public void recordDeposit(boolean success) {
+        depositsIssued.increment();
+        if (!success) {
+            depositsFailed.increment();
+        }
+    }
+
+    public long getKillsSeen() { return killsSeen.sum(); }
+    public long getKillsRewarded() { return killsRewarded.sum(); }
+    public long getDepositsIssued() { return depositsIssued.sum(); }
+    public long getDepositsFailed() { return depositsFailed.sum(); }
+    public long getKillsSkipped(SkipReason reason) { return killsSkipped[reason.ordinal()].sum(); }
+    public LatencyHistogram getProcessingTimes() { return processingTimes; }
+    public LatencyHistogram getPhaseTimes(RewardPhase phase) { return phaseTimes[phase.ordinal()]; }
+    public EntityStats getEntityStats() { return entityStats; }
+    public LatencyHistogram getEconomyWaitTimes() { return economyWaitTimes; }
+    public int getEconomyQueueDepth() { return economyQueueDepth.getAsInt(); }
+    public LatencyHistogram getRewardDrainTimes() { return rewardDrainTimes; }
+    public int getRewardQueueDepth() { return rewardQueueDepth.getAsInt(); }
+
+    public void recordEconomyWait(long nanos) {
+        economyWaitTimes.record(nanos);
+    }
+
+    public void setEconomyQueueDepth(IntSupplier depth) {
+        this.economyQueueDepth = depth;
+    }
+
+    public void recordRewardDrain(long nanos) {
+        rewardDrainTimes.record(nanos);
+    }
+
+    public void setRewardQueueDepth(IntSupplier depth) {
+        this.rewardQueueDepth = depth;
+    }
+
+    public long recordPhase(RewardPhase phase, EntityType type, long startTime) {
+        long now = System.nanoTime();
+        long elapsed = now - startTime;
+        int index = phase.ordinal() * entityTypeCount + type.ordinal();
+        phaseTimes[phase.ordinal()].record(elapsed);
+        phaseTypeNanos.addAndGet(index, elapsed);
+        phaseTypeCounts.incrementAndGet(index);
+        return now;
+    }
+
+    public List<String> describePhases(String entityFilter) {
+        List<String> lines = new ArrayList<>();
+        lines.add("§6==========[處理階段耗時]==========");
+        for (RewardPhase phase : RewardPhase.values()) {
+            lines.add("§f" + phase.displayName + "（5 分鐘）：§e" + phaseTimes[phase.ordinal()].summarize(5).format());
+        }
+
+        lines.add("§6----------[各實體累計平均]----------");
+        for (EntityType type : EntityType.values()) {
+            if (entityFilter != null && !type.name().equalsIgnoreCase(entityFilter)) {
+                continue;
+            }
+            long kills = phaseTypeCounts.get(RewardPhase.FILTER.ordinal() * entityTypeCount + type.ordinal());
+            if (kills == 0) {
+                continue;
             }
-            totalProcessingTime.addAndGet(processingTime);
+            StringBuilder line = new StringBuilder("§f").append(type.name()).append("：§e");
+            for (RewardPhase phase : RewardPhase.values()) {
+                int index = phase.ordinal() * entityTypeCount + type.ordinal();
+                long count = phaseTypeCounts.get(index);
+                double average = count > 0 ? phaseTypeNanos.get(index) / (double) count / 1_000_000.0 : 0;
+                line.append(String.format("%s %.3f ", phase.displayName, average));
+            }
+            lines.add(line.append(String.format("ms §7（%d 次）", kills)).toString());
         }
+        lines.add("§6==============================");
+        return lines;
     }
 
     private double calculatePluginMspt() {
-        synchronized (processingTimes) {
-            if (processingTimes.isEmpty()) {
-                return lastPluginMspt;
-            }
-            double avgProcessingTime = processingTimes.stream()
-                .mapToDouble(time -> time / 1_000_000.0)
-                .average()
-                .orElse(0.0);
-            
-            lastPluginMspt = avgProcessingTime;
-            return avgProcessingTime;
+        LatencyHistogram.Summary summary = processingTimes.summarize(1);
+        if (summary.count == 0) {
+            return lastPluginMspt;
         }
+        
+        lastPluginMspt = summary.meanMillis();
+        return lastPluginMspt;
     }
 
     private double calculatePluginTpsImpact() {
@@ -96,55 +199,117 @@ public class MetricsManager {
         return calculatePluginTpsImpact();
     }
     
-    public void logMetrics(int processedCount, double rate, int cacheSize, int recentListSize) {
-        String today = LocalDate.now().format(dateFormatter);
-        if (!today.equals(currentDate)) {
-            initializeCurrentDateFile();
-        }
-        
-        String timeKey = LocalDateTime.now().format(timeFormatter);
+    public LatencyHistogram.Summary getLatency(int windowMinutes) {
+        return processingTimes.summarize(windowMinutes);
+    }
+    
+    public void logMetrics(int processedCount, int depositCount, double rate, int cacheSize, int recentListSize) {
         double pluginMspt = calculatePluginMspt();
         double tpsImpact = calculatePluginTpsImpact();
+        LatencyHistogram.Summary latency = processingTimes.summarize(5);
         
-        currentMetrics.set(timeKey + ".插件效能影響", new String[] {
-            String.format("MSPT：+%.3f", pluginMspt),
-            String.format("TPS：-%.3f", tpsImpact),
-            String.format("預估實際TPS：%.2f", 20.0 - tpsImpact)
-        });
-        
-        currentMetrics.set(timeKey + ".處理統計", new String[] {
-            String.format("處理實體數量：%d", processedCount),
-            String.format("處理速率：%.2f 個/秒", rate),
-            String.format("緩存大小：%d", cacheSize),
-            String.format("最近處理列表大小：%d", recentListSize),
-            String.format("平均處理時間：+%.3f", processedCount > 0 ? pluginMspt / processedCount : 0)
-        });
-        
-        try {
-            currentMetrics.save(new File(metricsFolder, currentDate + ".yml"));
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "無法儲存效能指標資料", e);
+        metricsLog.append(String.format(Locale.ROOT,
+            "{\"time\":\"%s\",\"processed\":%d,\"deposits\":%d,\"rate\":%.3f,\"cacheSize\":%d,\"recentSize\":%d,"
+                + "\"mspt\":%.4f,\"tpsImpact\":%.4f,\"p50\":%.4f,\"p90\":%.4f,\"p99\":%.4f,\"p999\":%.4f,\"max\":%.4f",
+            LocalDateTime.now().format(timeFormatter), processedCount, depositCount, rate, cacheSize, recentListSize,
+            pluginMspt, tpsImpact, latency.p50 / 1_000_000.0, latency.p90 / 1_000_000.0,
+            latency.p99 / 1_000_000.0, latency.p999 / 1_000_000.0, latency.max / 1_000_000.0)
+            + phaseRecord() + economyRecord() + "}");
+    }
+    
+    private String economyRecord() {
+        LatencyHistogram.Summary wait = economyWaitTimes.summarize(5);
+        LatencyHistogram.Summary drain = rewardDrainTimes.summarize(5);
+        return String.format(Locale.ROOT, ",\"economyQueue\":%d,\"economyWaitP50\":%.4f,\"economyWaitP99\":%.4f"
+                + ",\"rewardQueue\":%d,\"rewardDrainP50\":%.4f,\"rewardDrainP99\":%.4f",
+            economyQueueDepth.getAsInt(), wait.p50 / 1_000_000.0, wait.p99 / 1_000_000.0,
+            rewardQueueDepth.getAsInt(), drain.p50 / 1_000_000.0, drain.p99 / 1_000_000.0);
+    }
+
+    private String phaseRecord() {
+        StringBuilder record = new StringBuilder();
+        for (RewardPhase phase : RewardPhase.values()) {
+            LatencyHistogram.Summary summary = phaseTimes[phase.ordinal()].summarize(5);
+            record.append(String.format(Locale.ROOT, ",\"%sP50\":%.4f,\"%sP99\":%.4f",
+                phase.key, summary.p50 / 1_000_000.0, phase.key, summary.p99 / 1_000_000.0));
         }
+        return record.toString();
     }
     
-    public void cleanupOldMetrics(int daysToKeep) {
-        LocalDate cutoffDate = LocalDate.now().minusDays(daysToKeep);
-        
-        File[] metricsFiles = metricsFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (metricsFiles != null) {
-            for (File file : metricsFiles) {
-                String fileName = file.getName().replace(".yml", "");
-                try {
-                    LocalDate fileDate = LocalDate.parse(fileName, dateFormatter);
-                    if (fileDate.isBefore(cutoffDate)) {
-                        if (file.delete()) {
-                            plugin.getLogger().info("已刪除舊的效能指標檔案：" + fileName);
-                        }
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger().warning("無法解析檔案日期：" + fileName);
+    public CompletableFuture<List<String>> summarizeDay(LocalDate date) {
+        return metricsLog.scanDay(date, lines -> {
+            long records = 0;
+            long processed = 0;
+            long deposits = 0;
+            double msptTotal = 0;
+            double worstP99 = 0;
+            double worstMax = 0;
+            double worstEconomyP99 = 0;
+            String first = null;
+            String last = null;
+            
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                records++;
+                processed += (long) readNumber(line, "processed");
+                deposits += (long) readNumber(line, "deposits");
+                msptTotal += readNumber(line, "mspt");
+                worstP99 = Math.max(worstP99, readNumber(line, "p99"));
+                worstMax = Math.max(worstMax, readNumber(line, "max"));
+                worstEconomyP99 = Math.max(worstEconomyP99, readNumber(line, "economyP99"));
+                String time = readString(line, "time");
+                if (first == null) {
+                    first = time;
                 }
+                last = time;
             }
+            
+            List<String> summary = new ArrayList<>();
+            summary.add(String.format("§f記錄筆數：§e%d §7（%s ~ %s）", records, first, last));
+            summary.add(String.format("§f處理實體數量：§e%d", processed));
+            summary.add(String.format("§f存款次數：§e%d", deposits));
+            summary.add(String.format("§f平均MSPT影響：§e+%.3f", records > 0 ? msptTotal / records : 0));
+            summary.add(String.format("§f最高 p99 延遲：§e%.3f ms", worstP99));
+            summary.add(String.format("§f最高延遲：§e%.3f ms", worstMax));
+            summary.add(String.format("§f最高經濟操作 p99 延遲：§e%.3f ms", worstEconomyP99));
+            return summary;
+        });
+    }
+    
+    public void close() {
+        metricsLog.close();
+    }
+    
+    private static double readNumber(String line, String key) {
+        String token = "\"" + key + "\":";
+        int start = line.indexOf(token);
+        if (start < 0) {
+            return 0;
+        }
+        start += token.length();
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != '}') {
+            end++;
+        }
+        try {
+            return Double.parseDouble(line.substring(start, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private static String readString(String line, String key) {
+        String token = "\"" + key + "\":\"";
+        int start = line.indexOf(token);
+        if (start < 0) {
+            return "?";
         }
+        start += token.length();
+        int end = line.indexOf('"', start);
+        return end < 0 ? "?" : line.substring(start, end);
     }
-}
\ No newline at end of file
+}
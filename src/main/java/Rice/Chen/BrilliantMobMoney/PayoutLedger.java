@@ -0,0 +1,516 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.EntityType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class PayoutLedger {
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final int INDEX_MAGIC = 0x424D4D49;
+    private static final int RECORD_SIZE = 64;
+    private static final int BLOCK_RECORDS = 1024;
+    private static final int BLOCK_SIZE = RECORD_SIZE * BLOCK_RECORDS;
+    private static final int COMMITTED = 1;
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+
+    // 紀錄格式：時間(8) 玩家(16) 金額(8) 世界(16) 區塊X(4) 區塊Z(4) 實體(2) 保留(2) 完成旗標(4)
+    private static final int TIMESTAMP = 0;
+    private static final int PLAYER = 8;
+    private static final int AMOUNT = 24;
+    private static final int WORLD = 32;
+    private static final int CHUNK_X = 48;
+    private static final int CHUNK_Z = 52;
+    private static final int ENTITY = 56;
+    private static final int FLAG = 60;
+
+    // 完成旗標以 release 寫入、acquire 讀取，查詢使用中的分段時才能看到完整的紀錄內容
+    private static final VarHandle FLAG_HANDLE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    public static class Payout {
+        public final long timestamp;
+        public final EntityType entityType;
+        public final double amount;
+        public final UUID world;
+        public final int chunkX;
+        public final int chunkZ;
+
+        Payout(long timestamp, EntityType entityType, double amount, UUID world, int chunkX, int chunkZ) {
+            this.timestamp = timestamp;
+            this.entityType = entityType;
+            this.amount = amount;
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    public static class Summary {
+        public final int count;
+        public final double total;
+        public final List<Payout> recent;
+
+        Summary(int count, double total, List<Payout> recent) {
+            this.count = count;
+            this.total = total;
+            this.recent = recent;
+        }
+    }
+
+    private final Logger logger;
+    private final Path folder;
+    private final int segmentRecords;
+    private final IntSupplier retentionDays;
+    private final LongAdder recorded = new LongAdder();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BrilliantMobMoney-Ledger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Segment current;
+    private Segment spare;
+    private boolean closed;
+
+    public PayoutLedger(Logger logger, Path folder, int segmentRecords, IntSupplier retentionDays) throws IOException {
+        this.logger = logger;
+        this.folder = folder;
+        this.segmentRecords = (segmentRecords + BLOCK_RECORDS - 1) / BLOCK_RECORDS * BLOCK_RECORDS;
+        this.retentionDays = retentionDays;
+        Files.createDirectories(folder);
+
+        // 上次未正常關閉的分段沒有索引，在背景補建
+        for (Path segment : listSegments()) {
+            if (!Files.exists(indexFor(segment))) {
+                worker.execute(() -> indexSegment(segment));
+            }
+        }
+        this.current = openSegment();
+        worker.execute(this::prepareSpare);
+        worker.scheduleAtFixedRate(this::prune, 1, TimeUnit.HOURS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    public void record(UUID player, EntityType type, double amount, UUID world, int chunkX, int chunkZ) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Segment segment = current;
+            if (segment == null) {
+                return;
+            }
+            segment.writers.incrementAndGet();
+            try {
+                // 分段已停用時 seal 可能已讀過寫入者數量，改用新的分段，關閉後則直接放棄
+                if (segment.retired) {
+                    continue;
+                }
+                long slot = segment.next.getAndIncrement();
+                if (slot < segmentRecords) {
+                    int offset = (int) slot * RECORD_SIZE;
+                    MappedByteBuffer buffer = segment.buffer;
+                    buffer.putLong(offset + TIMESTAMP, now);
+                    buffer.putLong(offset + PLAYER, player.getMostSignificantBits());
+                    buffer.putLong(offset + PLAYER + 8, player.getLeastSignificantBits());
+                    buffer.putDouble(offset + AMOUNT, amount);
+                    buffer.putLong(offset + WORLD, world.getMostSignificantBits());
+                    buffer.putLong(offset + WORLD + 8, world.getLeastSignificantBits());
+                    buffer.putInt(offset + CHUNK_X, chunkX);
+                    buffer.putInt(offset + CHUNK_Z, chunkZ);
+                    buffer.putShort(offset + ENTITY, (short) type.ordinal());
+                    FLAG_HANDLE.setRelease(buffer, offset + FLAG, COMMITTED);
+                    recorded.increment();
+                    return;
+                }
+            } finally {
+                segment.writers.decrementAndGet();
+            }
+            rotate(segment);
+        }
+    }
+
+    public CompletableFuture<Summary> query(UUID player, long since, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            Scan scan = new Scan(player, since, limit);
+            Segment active = current;
+            try {
+                for (Path segment : listSegments()) {
+                    if (isSpare(segment)) {
+                        continue;
+                    }
+                    if (active != null && segment.equals(active.file)) {
+                        ByteBuffer view = active.buffer.duplicate();
+                        scanBlock(view, 0, (int) Math.min(active.next.get(), segmentRecords), true, scan);
+                    } else {
+                        scanSegment(segment, scan);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("無法讀取發放紀錄", e);
+            }
+            return new Summary(scan.count, scan.total, new ArrayList<>(scan.recent));
+        }, worker);
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public void close() {
+        Segment last;
+        synchronized (this) {
+            closed = true;
+            last = current;
+            current = null;
+            if (last != null) {
+                last.retired = true;
+            }
+            if (spare != null) {
+                discard(spare);
+                spare = null;
+            }
+        }
+        if (last != null) {
+            worker.execute(() -> seal(last));
+        }
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rotate(Segment full) {
+        synchronized (this) {
+            if (current != full || closed) {
+                return;
+            }
+            Segment next = spare;
+            spare = null;
+            if (next == null) {
+                try {
+                    next = openSegment();
+                } catch (IOException e) {
+                    logger.log(Level.SEVERE, "無法建立新的發放紀錄分段，停止記錄", e);
+                    current = null;
+                    full.retired = true;
+                    worker.execute(() -> seal(full));
+                    return;
+                }
+            }
+            current = next;
+            full.retired = true;
+        }
+        worker.execute(() -> seal(full));
+        worker.execute(this::prepareSpare);
+    }
+
+    private void prepareSpare() {
+        synchronized (this) {
+            if (spare != null || closed) {
+                return;
+            }
+        }
+        try {
+            Segment prepared = openSegment();
+            synchronized (this) {
+                if (spare == null && !closed) {
+                    spare = prepared;
+                    return;
+                }
+            }
+            discard(prepared);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "無法預先建立發放紀錄分段", e);
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        Path file = folder.resolve(String.format("payouts-%d-%s%s", System.currentTimeMillis(),
+            UUID.randomUUID().toString().substring(0, 8), SEGMENT_EXTENSION));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE));
+        }
+    }
+
+    private void discard(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "無法刪除未使用的發放紀錄分段：" + segment.file.getFileName(), e);
+        }
+    }
+
+    private void seal(Segment segment) {
+        // 分段已標記停用，等待仍在寫入此分段的執行緒完成後就不會再有新的寫入
+        while (segment.writers.get() > 0) {
+            Thread.onSpinWait();
+        }
+        segment.buffer.force();
+        if (segment.next.get() == 0) {
+            discard(segment);
+            return;
+        }
+        indexSegment(segment.file);
+    }
+
+    private void indexSegment(Path segment) {
+        Map<UUID, BitSet> blocks = new HashMap<>();
+        long first = Long.MAX_VALUE;
+        long last = 0;
+        try {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+                long records = channel.size() / RECORD_SIZE;
+                for (int blockIndex = 0; (long) blockIndex * BLOCK_RECORDS < records; blockIndex++) {
+                    block.clear();
+                    readFully(channel, block, (long) blockIndex * BLOCK_SIZE);
+                    for (int offset = 0; offset + RECORD_SIZE <= block.limit(); offset += RECORD_SIZE) {
+                        if (block.getInt(offset + FLAG) != COMMITTED) {
+                            continue;
+                        }
+                        long timestamp = block.getLong(offset + TIMESTAMP);
+                        first = Math.min(first, timestamp);
+                        last = Math.max(last, timestamp);
+                        UUID player = new UUID(block.getLong(offset + PLAYER), block.getLong(offset + PLAYER + 8));
+                        blocks.computeIfAbsent(player, uuid -> new BitSet()).set(blockIndex);
+                    }
+                }
+            }
+            if (blocks.isEmpty()) {
+                Files.deleteIfExists(segment);
+            } else {
+                writeIndex(segment, first, last, blocks);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "無法建立發放紀錄索引：" + segment.getFileName(), e);
+        }
+    }
+
+    private void writeIndex(Path segment, long first, long last, Map<UUID, BitSet> blocks) throws IOException {
+        int size = Integer.BYTES * 2 + Long.BYTES * 2;
+        for (BitSet bits : blocks.values()) {
+            size += Long.BYTES * 2 + Integer.BYTES * (1 + bits.cardinality());
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(INDEX_MAGIC).putLong(first).putLong(last).putInt(blocks.size());
+        for (Map.Entry<UUID, BitSet> entry : blocks.entrySet()) {
+            BitSet bits = entry.getValue();
+            out.putLong(entry.getKey().getMostSignificantBits()).putLong(entry.getKey().getLeastSignificantBits());
+            out.putInt(bits.cardinality());
+            for (int block = bits.nextSetBit(0); block >= 0; block = bits.nextSetBit(block + 1)) {
+                out.putInt(block);
+            }
+        }
+        out.flip();
+
+        Path index = indexFor(segment);
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void scanSegment(Path segment, Scan scan) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            int blockCount = (int) ((channel.size() + BLOCK_SIZE - 1) / BLOCK_SIZE);
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            for (int blockIndex : candidateBlocks(segment, scan, blockCount)) {
+                block.clear();
+                readFully(channel, block, (long) blockIndex * BLOCK_SIZE);
+                scanBlock(block, 0, block.limit() / RECORD_SIZE, false, scan);
+            }
+        }
+    }
+
+    private int[] candidateBlocks(Path segment, Scan scan, int blockCount) throws IOException {
+        Path index = indexFor(segment);
+        if (Files.exists(index)) {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(index));
+            if (in.remaining() >= Integer.BYTES * 2 + Long.BYTES * 2 && in.getInt() == INDEX_MAGIC) {
+                in.getLong();
+                long last = in.getLong();
+                if (last < scan.since) {
+                    return new int[0];
+                }
+                int players = in.getInt();
+                for (int i = 0; i < players; i++) {
+                    boolean match = in.getLong() == scan.mostBits & in.getLong() == scan.leastBits;
+                    int[] blocks = new int[in.getInt()];
+                    for (int j = 0; j < blocks.length; j++) {
+                        blocks[j] = in.getInt();
+                    }
+                    if (match) {
+                        return blocks;
+                    }
+                }
+                return new int[0];
+            }
+        }
+
+        // 沒有索引時逐塊掃描整個分段
+        int[] blocks = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blocks[i] = i;
+        }
+        return blocks;
+    }
+
+    private static void scanBlock(ByteBuffer buffer, int from, int to, boolean live, Scan scan) {
+        for (int record = from; record < to; record++) {
+            int offset = record * RECORD_SIZE;
+            int flag = live ? (int) FLAG_HANDLE.getAcquire(buffer, offset + FLAG) : buffer.getInt(offset + FLAG);
+            if (flag != COMMITTED
+                || buffer.getLong(offset + PLAYER) != scan.mostBits
+                || buffer.getLong(offset + PLAYER + 8) != scan.leastBits) {
+                continue;
+            }
+            long timestamp = buffer.getLong(offset + TIMESTAMP);
+            if (timestamp < scan.since) {
+                continue;
+            }
+            int ordinal = buffer.getShort(offset + ENTITY);
+            scan.add(new Payout(timestamp,
+                ordinal >= 0 && ordinal < ENTITY_TYPES.length ? ENTITY_TYPES[ordinal] : EntityType.UNKNOWN,
+                buffer.getDouble(offset + AMOUNT),
+                new UUID(buffer.getLong(offset + WORLD), buffer.getLong(offset + WORLD + 8)),
+                buffer.getInt(offset + CHUNK_X), buffer.getInt(offset + CHUNK_Z)));
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer block, long position) throws IOException {
+        while (block.hasRemaining()) {
+            int read = channel.read(block, position + block.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        block.flip();
+    }
+
+    private void prune() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays.getAsInt());
+        Segment active = current;
+        try {
+            for (Path segment : listSegments()) {
+                if ((active != null && segment.equals(active.file)) || isSpare(segment)) {
+                    continue;
+                }
+                if (lastTimestamp(segment) < cutoff) {
+                    Files.deleteIfExists(indexFor(segment));
+                    Files.deleteIfExists(segment);
+                    logger.info("已刪除舊的發放紀錄：" + segment.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "清理舊的發放紀錄時發生錯誤", e);
+        }
+    }
+
+    private long lastTimestamp(Path segment) throws IOException {
+        Path index = indexFor(segment);
+        if (Files.exists(index)) {
+            try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Long.BYTES * 2);
+                readFully(channel, header, 0);
+                if (header.remaining() == header.capacity() && header.getInt() == INDEX_MAGIC) {
+                    header.getLong();
+                    return header.getLong();
+                }
+            }
+        }
+        return Files.getLastModifiedTime(segment).toMillis();
+    }
+
+    private synchronized boolean isSpare(Path segment) {
+        return spare != null && segment.equals(spare.file);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*" + SEGMENT_EXTENSION)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static Path indexFor(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_EXTENSION.length()) + INDEX_EXTENSION);
+    }
+
+    private static class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile boolean retired;
+
+        Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private static class Scan {
+        private final long mostBits;
+        private final long leastBits;
+        private final long since;
+        private final int limit;
+        private final ArrayDeque<Payout> recent = new ArrayDeque<>();
+        private int count;
+        private double total;
+
+        Scan(UUID player, long since, int limit) {
+            this.mostBits = player.getMostSignificantBits();
+            this.leastBits = player.getLeastSignificantBits();
+            this.since = since;
+            this.limit = limit;
+        }
+
+        private void add(Payout payout) {
+            count++;
+            total += payout.amount;
+            recent.addLast(payout);
+            if (recent.size() > limit) {
+                recent.removeFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PermissionMultipliers {
+    public static final String PERMISSION_PREFIX = "brilliantmobmoney.multiplier.";
+
+    private final ConfigManager configManager;
+    private final TaskDispatcher taskDispatcher;
+    private final Map<UUID, Double> multipliers = new ConcurrentHashMap<>();
+
+    public PermissionMultipliers(ConfigManager configManager, TaskDispatcher taskDispatcher) {
+        this.configManager = configManager;
+        this.taskDispatcher = taskDispatcher;
+    }
+
+    public double get(Player player) {
+        Double multiplier = multipliers.get(player.getUniqueId());
+        if (multiplier != null) {
+            return multiplier;
+        }
+        double resolved = resolve(player);
+        multipliers.put(player.getUniqueId(), resolved);
+        return resolved;
+    }
+
+    public void load(Player player) {
+        if (configManager.isPermissionMultipliers()) {
+            multipliers.put(player.getUniqueId(), resolve(player));
+        }
+    }
+
+    public void refresh(Player player) {
+        if (!configManager.isPermissionMultipliers()) {
+            return;
+        }
+        UUID uuid = player.getUniqueId();
+        taskDispatcher.runForPlayer(player, () -> multipliers.put(uuid, resolve(player)), () -> multipliers.remove(uuid));
+    }
+
+    public void refreshAll(Collection<? extends Player> players) {
+        if (!configManager.isPermissionMultipliers()) {
+            multipliers.clear();
+            return;
+        }
+        for (Player player : players) {
+            refresh(player);
+        }
+    }
+
+    public void remove(UUID uuid) {
+        multipliers.remove(uuid);
+    }
+
+    public int size() {
+        return multipliers.size();
+    }
+
+    public void clear() {
+        multipliers.clear();
+    }
+
+    private double resolve(Player player) {
+        double best = -1;
+        for (PermissionAttachmentInfo info : player.getEffectivePermissions()) {
+            String permission = info.getPermission();
+            if (!info.getValue() || !permission.regionMatches(true, 0, PERMISSION_PREFIX, 0, PERMISSION_PREFIX.length())) {
+                continue;
+            }
+            try {
+                double value = Double.parseDouble(permission.substring(PERMISSION_PREFIX.length()));
+                if (value >= 0) {
+                    best = Math.max(best, value);
+                }
+            } catch (NumberFormatException e) {
+                // 非數字的節點（例如 brilliantmobmoney.multiplier.*）不視為倍率
+            }
+        }
+        return best < 0 ? 1.0 : Math.min(best, configManager.getMaxPermissionMultiplier());
+    }
+}
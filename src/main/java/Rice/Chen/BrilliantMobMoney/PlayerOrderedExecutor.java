@@ -0,0 +1,106 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class PlayerOrderedExecutor {
+    private final ExecutorService backend;
+    private final Logger logger;
+    private final LongConsumer waitRecorder;
+    private final Map<UUID, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public PlayerOrderedExecutor(ExecutorService backend, Logger logger, LongConsumer waitRecorder) {
+        this.backend = backend;
+        this.logger = logger;
+        this.waitRecorder = waitRecorder;
+    }
+
+    public void execute(UUID player, Runnable task) {
+        QueuedTask queuedTask = new QueuedTask(task, System.nanoTime());
+        boolean[] started = new boolean[1];
+        queued.incrementAndGet();
+        Lane lane = lanes.compute(player, (uuid, current) -> {
+            if (current == null) {
+                current = new Lane(uuid);
+                started[0] = true;
+            }
+            current.tasks.add(queuedTask);
+            return current;
+        });
+
+        if (started[0]) {
+            backend.execute(() -> drain(lane));
+        }
+    }
+
+    public Executor forPlayer(UUID player) {
+        return task -> execute(player, task);
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getActiveLanes() {
+        return lanes.size();
+    }
+
+    public void shutdown(long timeoutMillis) {
+        backend.shutdown();
+        try {
+            backend.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        backend.shutdownNow();
+    }
+
+    private void drain(Lane lane) {
+        while (true) {
+            QueuedTask next;
+            while ((next = lane.tasks.poll()) != null) {
+                queued.decrementAndGet();
+                waitRecorder.accept(System.nanoTime() - next.submittedAt);
+                try {
+                    next.task.run();
+                } catch (Throwable t) {
+                    logger.log(Level.SEVERE, "執行經濟操作時發生未預期的錯誤", t);
+                }
+            }
+            // 在 compute 內確認佇列已空才移除，避免與 execute 同時加入的工作遺失
+            if (lanes.compute(lane.player, (uuid, current) -> current.tasks.isEmpty() ? null : current) == null) {
+                return;
+            }
+        }
+    }
+
+    private static class Lane {
+        private final UUID player;
+        private final Queue<QueuedTask> tasks = new ConcurrentLinkedQueue<>();
+
+        Lane(UUID player) {
+            this.player = player;
+        }
+    }
+
+    private static class QueuedTask {
+        private final Runnable task;
+        private final long submittedAt;
+
+        QueuedTask(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+public class RecentEntityTable {
+    private static final int GROUP_SIZE = 8;
+    private static final int LOCK_STRIPES = 64;
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final long[] mostBits;
+    private final long[] leastBits;
+    private final long[] expiries;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final int groupMask;
+    private final long ttlNanos;
+    private final long origin = System.nanoTime();
+
+    public RecentEntityTable(int maxEntries, int ttlTicks) {
+        int groups = Integer.highestOneBit(Math.max(1, (maxEntries + GROUP_SIZE - 1) / GROUP_SIZE) * 2 - 1);
+        int capacity = groups * GROUP_SIZE;
+        this.mostBits = new long[capacity];
+        this.leastBits = new long[capacity];
+        this.expiries = new long[capacity];
+        this.groupMask = groups - 1;
+        this.ttlNanos = Math.max(1, ttlTicks) * NANOS_PER_TICK;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public boolean markProcessed(UUID uuid) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        long now = now();
+        int group = spread(most ^ least) & groupMask;
+        int base = group * GROUP_SIZE;
+
+        synchronized (locks[group & (LOCK_STRIPES - 1)]) {
+            int victim = base;
+            long victimExpiry = Long.MAX_VALUE;
+            for (int i = base; i < base + GROUP_SIZE; i++) {
+                long expiry = expiries[i];
+                if (expiry > now && mostBits[i] == most && leastBits[i] == least) {
+                    return false;
+                }
+                if (expiry < victimExpiry) {
+                    victim = i;
+                    victimExpiry = expiry;
+                }
+            }
+            mostBits[victim] = most;
+            leastBits[victim] = least;
+            expiries[victim] = now + ttlNanos;
+            return true;
+        }
+    }
+
+    public int size() {
+        long now = now();
+        int live = 0;
+        for (long expiry : expiries) {
+            if (expiry > now) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    public int capacity() {
+        return expiries.length;
+    }
+
+    public void clear() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            synchronized (locks[i]) {
+                for (int group = i; group <= groupMask; group += LOCK_STRIPES) {
+                    int base = group * GROUP_SIZE;
+                    Arrays.fill(expiries, base, base + GROUP_SIZE, 0L);
+                }
+            }
+        }
+    }
+
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    private static int spread(long hash) {
+        int h = (int) (hash ^ (hash >>> 32));
+        return h ^ (h >>> 16);
+    }
+}
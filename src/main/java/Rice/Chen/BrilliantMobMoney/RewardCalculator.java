@@ -0,0 +1,22 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class RewardCalculator {
+    private RewardCalculator() {
+    }
+
+    static double calculateReward(ConfigManager.MobConfig config, double multiplier) {
+        if (config.min == config.max) {
+            return config.min * multiplier;
+        }
+        return (config.min + (config.max - config.min) * ThreadLocalRandom.current().nextDouble()) * multiplier;
+    }
+
+    static int calculateDrops(ConfigManager.MobConfig config) {
+        if (config.minDrops >= config.maxDrops) {
+            return config.minDrops;
+        }
+        return ThreadLocalRandom.current().nextInt(config.minDrops, config.maxDrops + 1);
+    }
+}
@@ -0,0 +1,162 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+final class RewardEvents {
+    private static final List<Class<? extends Event>> EVENT_TYPES =
+        List.of(KillEvaluated.class, ChanceRolled.class, DepositIssued.class, MessageSent.class);
+
+    private RewardEvents() {
+    }
+
+    static void register() {
+        for (Class<? extends Event> type : EVENT_TYPES) {
+            FlightRecorder.register(type);
+        }
+    }
+
+    // 插件重新載入時需取消註冊，否則舊的類別載入器無法被回收
+    static void unregister() {
+        for (Class<? extends Event> type : EVENT_TYPES) {
+            FlightRecorder.unregister(type);
+        }
+    }
+
+    // 沒有錄製進行時回傳 null，JIT 可省去事件物件的配置
+    static KillEvaluated beginKill() {
+        KillEvaluated event = new KillEvaluated();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static ChanceRolled beginChance() {
+        ChanceRolled event = new ChanceRolled();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static DepositIssued beginDeposit() {
+        DepositIssued event = new DepositIssued();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static MessageSent beginMessage() {
+        MessageSent event = new MessageSent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Name("brilliantmobmoney.KillEvaluated")
+    @Label("Kill Evaluated")
+    @Category({"BrilliantMobMoney", "Reward"})
+    @Description("A mob death checked against the reward rules")
+    @StackTrace(false)
+    static class KillEvaluated extends Event {
+        @Label("Entity Type")
+        String entityType;
+
+        @Label("Killer")
+        String killer;
+
+        @Label("Outcome")
+        @Description("queued, or the skip reason")
+        String outcome;
+
+        @Label("Base Reward")
+        double amount;
+
+        @Label("World")
+        String world;
+
+        @Label("Chunk X")
+        int chunkX;
+
+        @Label("Chunk Z")
+        int chunkZ;
+    }
+
+    @Name("brilliantmobmoney.ChanceRolled")
+    @Label("Chance Rolled")
+    @Category({"BrilliantMobMoney", "Reward"})
+    @StackTrace(false)
+    static class ChanceRolled extends Event {
+        @Label("Entity Type")
+        String entityType;
+
+        @Label("Killer")
+        String killer;
+
+        @Label("Roll (%)")
+        double roll;
+
+        @Label("Drop Chance (%)")
+        double chance;
+
+        @Label("Passed")
+        boolean passed;
+    }
+
+    @Name("brilliantmobmoney.DepositIssued")
+    @Label("Deposit Issued")
+    @Category({"BrilliantMobMoney", "Economy"})
+    @Description("Handing a reward to the economy provider, from delivery until the result is known")
+    @StackTrace(false)
+    static class DepositIssued extends Event {
+        @Label("Entity Type")
+        String entityType;
+
+        @Label("Player")
+        String player;
+
+        @Label("Amount")
+        double amount;
+
+        @Label("Result")
+        String result;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Batched")
+        boolean batched;
+    }
+
+    @Name("brilliantmobmoney.MessageSent")
+    @Label("Reward Message Sent")
+    @Category({"BrilliantMobMoney", "Reward"})
+    @StackTrace(false)
+    static class MessageSent extends Event {
+        @Label("Entity Type")
+        String entityType;
+
+        @Label("Player")
+        String player;
+
+        @Label("Amount")
+        double amount;
+
+        @Label("Coalesced")
+        boolean coalesced;
+    }
+}
@@ -0,0 +1,202 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class RewardJournal {
+    private static final byte PENDING = 1;
+    private static final byte SETTLED = 2;
+    private static final int PENDING_SIZE = 1 + Long.BYTES * 3 + Double.BYTES;
+    private static final int MAX_BATCH = 1024;
+
+    private final Logger logger;
+    private final Path file;
+    private final long compactThresholdBytes;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Map<Long, Entry> outstanding = new LinkedHashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(PENDING_SIZE * MAX_BATCH);
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<Entry> recovered;
+    private final Thread writer;
+    private FileChannel channel;
+    private volatile boolean running = true;
+
+    public RewardJournal(Logger logger, Path folder, long compactThresholdBytes) throws IOException {
+        this.logger = logger;
+        this.file = folder.resolve("rewards.journal");
+        this.compactThresholdBytes = compactThresholdBytes;
+        Files.createDirectories(folder);
+        recover();
+        this.recovered = new ArrayList<>(outstanding.values());
+        this.writer = new Thread(this::run, "BrilliantMobMoney-Journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public List<Entry> getRecovered() {
+        return recovered;
+    }
+
+    public long append(UUID player, double amount) {
+        long id = nextId.getAndIncrement();
+        queue.add(new Entry(PENDING, id, player.getMostSignificantBits(), player.getLeastSignificantBits(), amount));
+        return id;
+    }
+
+    public void settle(long id) {
+        queue.add(new Entry(SETTLED, id, 0, 0, 0));
+    }
+
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "關閉獎勵日誌時發生錯誤", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        long maxId = 0;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (true) {
+                    byte type = in.readByte();
+                    long id = in.readLong();
+                    if (type == PENDING) {
+                        outstanding.put(id, new Entry(PENDING, id, in.readLong(), in.readLong(), in.readDouble()));
+                    } else if (type == SETTLED) {
+                        outstanding.remove(id);
+                    } else {
+                        logger.warning("獎勵日誌內容損毀，已略過其後的紀錄：" + file.getFileName());
+                        break;
+                    }
+                    maxId = Math.max(maxId, id);
+                }
+            } catch (EOFException e) {
+                // 尾端可能是當機時寫入一半的紀錄
+            }
+        }
+        nextId.set(maxId + 1);
+        compact();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+                if (channel.size() > Math.max(compactThresholdBytes, (long) outstanding.size() * PENDING_SIZE * 2)) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "無法寫入獎勵日誌", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) throws IOException {
+        buffer.clear();
+        for (Entry entry : batch) {
+            buffer.put(entry.type).putLong(entry.id);
+            if (entry.type == PENDING) {
+                buffer.putLong(entry.mostBits).putLong(entry.leastBits).putDouble(entry.amount);
+                outstanding.put(entry.id, entry);
+            } else {
+                outstanding.remove(entry.id);
+            }
+        }
+        drain(channel);
+        channel.force(false);
+    }
+
+    private void drain(FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void compact() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            for (Entry entry : outstanding.values()) {
+                if (buffer.remaining() < PENDING_SIZE) {
+                    drain(out);
+                }
+                buffer.put(PENDING).putLong(entry.id).putLong(entry.mostBits).putLong(entry.leastBits).putDouble(entry.amount);
+            }
+            drain(out);
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public static class Entry {
+        private final byte type;
+        public final long id;
+        private final long mostBits;
+        private final long leastBits;
+        public final double amount;
+
+        Entry(byte type, long id, long mostBits, long leastBits, double amount) {
+            this.type = type;
+            this.id = id;
+            this.mostBits = mostBits;
+            this.leastBits = leastBits;
+            this.amount = amount;
+        }
+
+        public UUID getPlayer() {
+            return new UUID(mostBits, leastBits);
+        }
+    }
+}
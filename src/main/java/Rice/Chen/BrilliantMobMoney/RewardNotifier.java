@@ -0,0 +1,66 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RewardNotifier {
+    private final ConfigManager configManager;
+    private final TaskDispatcher taskDispatcher;
+    private final Map<UUID, PendingNotice> pending = new ConcurrentHashMap<>();
+
+    public RewardNotifier(ConfigManager configManager, TaskDispatcher taskDispatcher) {
+        this.configManager = configManager;
+        this.taskDispatcher = taskDispatcher;
+    }
+
+    public void add(Player player, ConfigManager.MobConfig mobConfig, double amount) {
+        UUID uuid = player.getUniqueId();
+        PendingNotice notice = pending.computeIfAbsent(uuid, key -> new PendingNotice());
+        if (!notice.scheduled) {
+            // 只移除這次排程建立的訊息，玩家重新登入後的新訊息不受舊排程影響
+            notice.scheduled = true;
+            PendingNotice scheduled = notice;
+            taskDispatcher.runForPlayerLater(player, () -> flush(player, scheduled), () -> pending.remove(uuid, scheduled),
+                configManager.getNotificationWindow());
+        }
+        notice.lastMob = mobConfig;
+        notice.amount += amount;
+        notice.kills++;
+    }
+
+    public void remove(UUID uuid) {
+        pending.remove(uuid);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flush(Player player, PendingNotice notice) {
+        if (!pending.remove(player.getUniqueId(), notice) || notice.kills == 0) {
+            return;
+        }
+
+        String amount = MessageTemplate.formatAmount(notice.amount);
+        Component component = notice.kills == 1
+            ? notice.lastMob.rewardMessage.render(amount)
+            : configManager.getNotificationMessage().render(Integer.toString(notice.kills), amount);
+
+        if (configManager.isShowMessageInActionBar()) {
+            player.sendActionBar(component);
+        } else {
+            player.sendMessage(component);
+        }
+    }
+
+    private static class PendingNotice {
+        private ConfigManager.MobConfig lastMob;
+        private double amount;
+        private int kills;
+        private boolean scheduled;
+    }
+}
@@ -0,0 +1,16 @@
+package Rice.Chen.BrilliantMobMoney;
+
+public enum RewardPhase {
+    FILTER("事件過濾", "filter"),
+    QUEUE("排程等待", "queue"),
+    ECONOMY("經濟操作", "economy"),
+    MESSAGE("訊息發送", "message");
+
+    public final String displayName;
+    public final String key;
+
+    RewardPhase(String displayName, String key) {
+        this.displayName = displayName;
+        this.key = key;
+    }
+}
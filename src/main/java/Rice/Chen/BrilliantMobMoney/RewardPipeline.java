@@ -0,0 +1,600 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.entity.TNTPrimed;
+import org.bukkit.entity.Tameable;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class RewardPipeline {
+    private final Logger logger;
+    private final ConfigManager configManager;
+    private final TaskDispatcher taskDispatcher;
+    private final MetricsManager metricsManager;
+    private final RecentEntityTable recentlyProcessed;
+    private final RewardRateLimiter rateLimiter;
+    private final TraceBuffer traceBuffer;
+    private final PermissionMultipliers permissionMultipliers;
+    private final SpawnReasonIndex spawnReasons;
+    private final DamageLedger damageLedger;
+    private final EconomyGateway economyGateway;
+    private final RewardQueue.Sink rewardSink = this::deliverReward;
+    private RewardQueue rewardQueue;
+    private RewardJournal rewardJournal;
+    private PayoutLedger payoutLedger;
+    private DepositBatcher depositBatcher;
+    private RewardNotifier rewardNotifier;
+
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder depositCount = new LongAdder();
+
+    public RewardPipeline(Logger logger, Path dataFolder, ConfigManager configManager, TaskDispatcher taskDispatcher,
+                          MetricsManager metricsManager, Economy economy, boolean offloadEconomyCalls, int queueStripes) {
+        this.logger = logger;
+        this.configManager = configManager;
+        this.taskDispatcher = taskDispatcher;
+        this.metricsManager = metricsManager;
+        this.recentlyProcessed = new RecentEntityTable(configManager.getMaxRecentEntries(), configManager.getDedupeTicks());
+        this.rateLimiter = new RewardRateLimiter(configManager);
+        this.traceBuffer = new TraceBuffer(configManager, dataFolder.resolve("traces"), configManager.getTraceBufferSize());
+        this.permissionMultipliers = new PermissionMultipliers(configManager, taskDispatcher);
+        this.spawnReasons = new SpawnReasonIndex(configManager.getSpawnReasonMaxEntries());
+        this.damageLedger = new DamageLedger(configManager.getKillCreditMaxEntities());
+        this.economyGateway = new EconomyGateway(this, economy, configManager, offloadEconomyCalls);
+        if (configManager.isRewardQueue()) {
+            rewardQueue = new RewardQueue(queueStripes, configManager.getRewardQueueCapacity());
+        }
+        if (metricsManager != null) {
+            metricsManager.setEconomyQueueDepth(economyGateway::getExecutorQueuedCount);
+            if (rewardQueue != null) {
+                metricsManager.setRewardQueueDepth(rewardQueue::size);
+            }
+        }
+
+        if (configManager.isRewardJournal()) {
+            try {
+                rewardJournal = new RewardJournal(logger, dataFolder.resolve("journal"),
+                    configManager.getJournalCompactThreshold());
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "無法開啟獎勵日誌，未發放的獎勵將不會被保存", e);
+            }
+        }
+
+        if (configManager.isPayoutLedger()) {
+            try {
+                payoutLedger = new PayoutLedger(logger, dataFolder.resolve("ledger"),
+                    configManager.getLedgerSegmentRecords(), configManager::getMetricsRetentionDays);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "無法開啟發放紀錄，獎勵將不會被記錄", e);
+            }
+        }
+
+        if (configManager.isBatchDeposits()) {
+            depositBatcher = new DepositBatcher(this, economyGateway, configManager);
+        }
+
+        if (configManager.isCoalesceNotifications()) {
+            rewardNotifier = new RewardNotifier(configManager, taskDispatcher);
+        }
+    }
+
+    public void scheduleMaintenance() {
+        if (rewardQueue != null) {
+            // Folia 上每個分段各有一個排程，由不同的執行緒同時處理
+            for (int i = 0; i < rewardQueue.stripes(); i++) {
+                int stripe = i;
+                taskDispatcher.runEconomyTimer(() -> drainRewards(stripe), 1L);
+            }
+        }
+        if (depositBatcher != null) {
+            taskDispatcher.runEconomyTimer(depositBatcher::flushAll, configManager.getBatchFlushInterval());
+        }
+
+        taskDispatcher.runEconomyTimer(economyGateway::pump, 20L);
+        taskDispatcher.runAsyncTimer(rateLimiter::evictIdle, Math.max(1, configManager.getCleanupInterval()) * 20L);
+        taskDispatcher.runAsyncTimer(() -> damageLedger.expire(configManager.getKillCreditWindowTicks()), 20L);
+    }
+
+    public void replayJournal(Function<UUID, OfflinePlayer> players) {
+        if (rewardJournal == null) {
+            return;
+        }
+        List<RewardJournal.Entry> entries = rewardJournal.getRecovered();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        logger.info(String.format("正在補發 %d 筆上次未完成的獎勵", entries.size()));
+        for (RewardJournal.Entry entry : entries) {
+            taskDispatcher.runEconomy(() -> {
+                OfflinePlayer player = players.apply(entry.getPlayer());
+                economyGateway.deposit(player, entry.amount, result -> {
+                    if (result == EconomyGateway.Result.ABANDONED) {
+                        return;
+                    }
+                    settleReward(entry.id);
+                    if (result == EconomyGateway.Result.FAILED) {
+                        logger.warning(String.format("補發獎勵失敗：玩家=%s, 金額=%f", player.getName(), entry.amount));
+                    }
+                });
+            });
+        }
+    }
+
+    public void handleDeath(LivingEntity entity) {
+        RewardEvents.KillEvaluated event = RewardEvents.beginKill();
+        SkipReason skipped = evaluateDeath(entity, event);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                Location location = entity.getLocation();
+                event.entityType = entity.getType().name();
+                event.outcome = skipped != null ? skipped.key : "queued";
+                event.world = location.getWorld() != null ? location.getWorld().getName() : null;
+                event.chunkX = location.getBlockX() >> 4;
+                event.chunkZ = location.getBlockZ() >> 4;
+                event.commit();
+            }
+        }
+    }
+
+    private SkipReason evaluateDeath(LivingEntity entity, RewardEvents.KillEvaluated event) {
+        final EntityType type = entity.getType();
+        ConfigManager.MobConfig mobConfig = configManager.getRewardConfig(type);
+
+        if (isTracking()) {
+            metricsManager.recordKillSeen(type);
+        }
+
+        if (mobConfig == null) {
+            return skip(SkipReason.UNCONFIGURED);
+        }
+
+        final long startTime = isTracking() ? metricsManager.startTracking() : 0;
+        Player killer = entity.getKiller();
+        DamageLedger.Credit[] credits = null;
+        if (configManager.isKillCredit()) {
+            credits = damageLedger.resolve(entity.getEntityId(), killer, configManager.getKillCreditMode(),
+                configManager.getKillCreditMinShare(), configManager.getKillCreditWindowTicks());
+            killer = credits.length > 0 ? credits[0].player : null;
+        }
+
+        if (killer == null) {
+            return skip(SkipReason.NO_KILLER);
+        }
+        // 記錄實際獲得獎勵的玩家，擊殺歸屬開啟時不一定是最後一擊的玩家
+        if (event != null) {
+            event.killer = killer.getName();
+        }
+
+        if (!recentlyProcessed.markProcessed(entity.getUniqueId())) {
+            traceBuffer.record(TraceEvent.DUPLICATE, killer, type, 0, 0);
+            return skip(SkipReason.DUPLICATE);
+        }
+
+        if (mobConfig.onlyOnKill && killer == null) {
+            return SkipReason.NO_KILLER;
+        }
+
+        double spawnMultiplier = 1.0;
+        if (configManager.isSpawnReasons()) {
+            int reason = spawnReasons.remove(entity.getEntityId());
+            if (reason >= 0) {
+                spawnMultiplier = configManager.getSpawnMultiplier(reason);
+                if (spawnMultiplier <= 0) {
+                    traceBuffer.record(TraceEvent.SPAWN_REASON, killer, type, 0, 0);
+                    return skip(SkipReason.SPAWN_REASON);
+                }
+            }
+        }
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        RewardEvents.ChanceRolled chanceEvent = RewardEvents.beginChance();
+        if (chanceEvent != null && chanceEvent.shouldCommit()) {
+            chanceEvent.entityType = type.name();
+            chanceEvent.killer = killer.getName();
+            chanceEvent.roll = roll * 100.0;
+            chanceEvent.chance = mobConfig.dropChance;
+            chanceEvent.passed = roll < mobConfig.chanceThreshold;
+            chanceEvent.commit();
+        }
+        if (roll >= mobConfig.chanceThreshold) {
+            traceBuffer.record(TraceEvent.CHANCE_FAILED, killer, type, roll * 100.0, mobConfig.dropChance);
+            return skip(SkipReason.CHANCE);
+        }
+        if (isTracking()) {
+            metricsManager.recordChancePassed(type);
+        }
+
+        boolean rateLimit = configManager.isRateLimit();
+        if (rateLimit && !rateLimiter.tryAcquireChunk(entity)) {
+            traceBuffer.record(TraceEvent.RATE_LIMITED, killer, type, 0, 0);
+            return skip(SkipReason.RATE_LIMITED);
+        }
+
+        double reward = RewardCalculator.calculateReward(mobConfig, spawnMultiplier) * RewardCalculator.calculateDrops(mobConfig);
+        if (event != null) {
+            event.amount = reward;
+        }
+        Location location = payoutLedger != null ? entity.getLocation() : null;
+        if (credits == null || credits.length == 1) {
+            if (rateLimit && !rateLimiter.tryAcquirePlayer(killer)) {
+                traceBuffer.record(TraceEvent.RATE_LIMITED, killer, type, 0, 0);
+                return skip(SkipReason.RATE_LIMITED);
+            }
+            queueReward(killer, type, mobConfig, reward, roll, startTime, location);
+            return null;
+        }
+
+        // 每位分得獎勵的玩家各自扣除限流額度；擊殺的處理時間只由第一份實際排入的獎勵記錄，其餘份額的 startTime 為 0
+        long shareStart = startTime;
+        boolean limited = false;
+        for (DamageLedger.Credit credit : credits) {
+            if (rateLimit && !rateLimiter.tryAcquirePlayer(credit.player)) {
+                traceBuffer.record(TraceEvent.RATE_LIMITED, credit.player, type, 0, 0);
+                limited = true;
+                continue;
+            }
+            if (queueReward(credit.player, type, mobConfig, reward * credit.share, roll, shareStart, location)) {
+                shareStart = 0;
+            }
+        }
+        if (limited && shareStart != 0) {
+            return skip(SkipReason.RATE_LIMITED);
+        }
+        return null;
+    }
+
+    public void handleDamage(LivingEntity victim, Entity damager, double damage) {
+        if (!configManager.isKillCredit()) {
+            return;
+        }
+        Player attacker = resolveAttacker(damager);
+        if (attacker != null) {
+            damageLedger.recordDamage(victim.getEntityId(), attacker, Math.min(damage, victim.getHealth()),
+                configManager.getKillCreditWindowTicks());
+        }
+    }
+
+    public void handleIgnite(Entity victim, Entity combuster) {
+        if (!configManager.isKillCredit()) {
+            return;
+        }
+        Player attacker = resolveAttacker(combuster);
+        if (attacker != null) {
+            damageLedger.recordIgnite(victim.getEntityId(), attacker, configManager.getKillCreditWindowTicks());
+        }
+    }
+
+    public void handleFireDamage(LivingEntity victim, double damage) {
+        if (configManager.isKillCredit()) {
+            damageLedger.recordFireDamage(victim.getEntityId(), Math.min(damage, victim.getHealth()),
+                configManager.getKillCreditWindowTicks());
+        }
+    }
+
+    public void handleSpawn(Entity entity, CreatureSpawnEvent.SpawnReason reason) {
+        if (configManager.isSpawnReasons() && configManager.isSpawnReasonTracked(reason)) {
+            spawnReasons.put(entity.getEntityId(), reason.ordinal());
+        }
+    }
+
+    public void handleRemove(Entity entity) {
+        if (configManager.isSpawnReasons()) {
+            spawnReasons.remove(entity.getEntityId());
+        }
+        if (configManager.isKillCredit()) {
+            damageLedger.discard(entity.getEntityId());
+        }
+    }
+
+    public void handleQuit(UUID uuid) {
+        if (depositBatcher != null) {
+            depositBatcher.flush(uuid);
+        }
+        if (rewardNotifier != null) {
+            rewardNotifier.remove(uuid);
+        }
+        permissionMultipliers.remove(uuid);
+    }
+
+    public void close() {
+        if (rewardQueue != null) {
+            rewardQueue.drainAll(rewardSink);
+        }
+        if (depositBatcher != null) {
+            depositBatcher.flushAll();
+        }
+        economyGateway.close();
+        if (rewardJournal != null) {
+            rewardJournal.close();
+        }
+        if (payoutLedger != null) {
+            payoutLedger.close();
+        }
+        recentlyProcessed.clear();
+        rateLimiter.clear();
+        permissionMultipliers.clear();
+        spawnReasons.clear();
+        damageLedger.clear();
+    }
+
+    Logger getLogger() {
+        return logger;
+    }
+
+    void settleReward(long journalId) {
+        if (rewardJournal != null && journalId > 0) {
+            rewardJournal.settle(journalId);
+        }
+    }
+
+    void recordEconomyWait(long nanos) {
+        if (isTracking()) {
+            metricsManager.recordEconomyWait(nanos);
+        }
+    }
+
+    void recordDeposit(boolean success) {
+        if (isTracking()) {
+            depositCount.increment();
+            metricsManager.recordDeposit(success);
+        }
+    }
+
+    public int getProcessedCount() { return processedCount.intValue(); }
+    public int getDepositCount() { return depositCount.intValue(); }
+    public int resetProcessedCount() { return (int) processedCount.sumThenReset(); }
+    public int resetDepositCount() { return (int) depositCount.sumThenReset(); }
+    public RecentEntityTable getRecentlyProcessed() { return recentlyProcessed; }
+    public RewardRateLimiter getRateLimiter() { return rateLimiter; }
+    public TraceBuffer getTraceBuffer() { return traceBuffer; }
+    public PermissionMultipliers getPermissionMultipliers() { return permissionMultipliers; }
+    public SpawnReasonIndex getSpawnReasons() { return spawnReasons; }
+    public DamageLedger getDamageLedger() { return damageLedger; }
+    public EconomyGateway getEconomyGateway() { return economyGateway; }
+    public RewardQueue getRewardQueue() { return rewardQueue; }
+    public RewardJournal getRewardJournal() { return rewardJournal; }
+    public PayoutLedger getPayoutLedger() { return payoutLedger; }
+    public DepositBatcher getDepositBatcher() { return depositBatcher; }
+    public RewardNotifier getRewardNotifier() { return rewardNotifier; }
+
+    private boolean isTracking() {
+        return metricsManager != null && configManager.isEnableMetrics();
+    }
+
+    private boolean isTracked(long startTime) {
+        return startTime != 0 && isTracking();
+    }
+
+    private void recordSkip(SkipReason reason) {
+        if (isTracking()) {
+            metricsManager.recordSkip(reason);
+        }
+    }
+
+    private SkipReason skip(SkipReason reason) {
+        recordSkip(reason);
+        return reason;
+    }
+
+    private boolean queueReward(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double baseReward,
+                                double roll, long startTime, Location location) {
+        double totalReward = baseReward;
+        if (configManager.isPermissionMultipliers()) {
+            totalReward *= permissionMultipliers.get(killer);
+        }
+
+        if (totalReward <= 0) {
+            traceBuffer.record(TraceEvent.ZERO_REWARD, killer, type, totalReward, 0);
+            recordSkip(SkipReason.ZERO_REWARD);
+            return false;
+        }
+
+        traceBuffer.record(TraceEvent.REWARD_QUEUED, killer, type, totalReward, roll * 100.0);
+
+        final double amount = totalReward;
+        final long queuedAt = isTracked(startTime) ? metricsManager.recordPhase(RewardPhase.FILTER, type, startTime) : 0;
+        final long journalId = rewardJournal != null ? rewardJournal.append(killer.getUniqueId(), amount) : 0;
+        final Consumer<EconomyGateway.Result> onResolved = resolvedCallback(killer, type, amount, journalId, location);
+        if (rewardQueue == null) {
+            taskDispatcher.runEconomy(() ->
+                deliverReward(killer, type, mobConfig, amount, onResolved, startTime, queuedAt));
+            return true;
+        }
+
+        RewardQueue.OverflowPolicy overflow = configManager.getRewardQueueOverflow();
+        if (rewardQueue.offer(killer, type, mobConfig, amount, onResolved, startTime, queuedAt,
+                overflow == RewardQueue.OverflowPolicy.DEFER)) {
+            return true;
+        }
+        if (overflow == RewardQueue.OverflowPolicy.SPILL) {
+            taskDispatcher.runEconomy(() ->
+                deliverReward(killer, type, mobConfig, amount, onResolved, startTime, queuedAt));
+            return true;
+        }
+        traceBuffer.record(TraceEvent.QUEUE_FULL, killer, type, amount, 0);
+        recordSkip(SkipReason.QUEUE_FULL);
+        onResolved.accept(EconomyGateway.Result.FAILED);
+        return false;
+    }
+
+    private void drainRewards(int stripe) {
+        long start = System.nanoTime();
+        int drained = rewardQueue.drain(stripe, rewardSink, configManager.getRewardQueueBudgetNanos());
+        if (drained > 0 && isTracking()) {
+            metricsManager.recordRewardDrain(System.nanoTime() - start);
+        }
+    }
+
+    // 放棄發放時不結清日誌，重啟後會再補發一次
+    private Consumer<EconomyGateway.Result> resolvedCallback(Player killer, EntityType type, double amount, long journalId,
+                                                             Location location) {
+        if (payoutLedger == null || location == null || location.getWorld() == null) {
+            return result -> {
+                if (result != EconomyGateway.Result.ABANDONED) {
+                    settleReward(journalId);
+                }
+            };
+        }
+        UUID player = killer.getUniqueId();
+        UUID world = location.getWorld().getUID();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        return result -> {
+            if (result != EconomyGateway.Result.ABANDONED) {
+                settleReward(journalId);
+            }
+            if (result == EconomyGateway.Result.SUCCESS) {
+                payoutLedger.record(player, type, amount, world, chunkX, chunkZ);
+            }
+        };
+    }
+
+    private static Player resolveAttacker(Entity source) {
+        for (int depth = 0; depth < 3 && source != null; depth++) {
+            if (source instanceof Player player) {
+                return player;
+            }
+            if (source instanceof Projectile projectile) {
+                source = projectile.getShooter() instanceof Entity shooter ? shooter : null;
+            } else if (source instanceof Tameable tameable) {
+                return tameable.isTamed() && tameable.getOwner() instanceof Player owner ? owner : null;
+            } else if (source instanceof TNTPrimed tnt) {
+                source = tnt.getSource();
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void deliverReward(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double totalReward,
+                               Consumer<EconomyGateway.Result> onResolved, long startTime, long queuedAt) {
+        long economyStart = isTracked(startTime) ? metricsManager.recordPhase(RewardPhase.QUEUE, type, queuedAt) : 0;
+        RewardEvents.DepositIssued depositEvent = RewardEvents.beginDeposit();
+        try {
+            // 以最終結果為準，合併存款要等整批送出、延後處理的存款要等經濟插件回應或放棄後才通知玩家
+            Consumer<EconomyGateway.Result> onComplete = result -> {
+                onResolved.accept(result);
+                completeReward(killer, type, mobConfig, totalReward, startTime, economyStart, result, depositEvent);
+            };
+            if (depositBatcher != null) {
+                depositBatcher.add(killer, totalReward, onComplete);
+            } else {
+                economyGateway.deposit(killer, totalReward, onComplete);
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, String.format(
+                "處理經濟操作時發生錯誤：玩家=%s, 金額=%f", killer.getName(), totalReward), e);
+        }
+    }
+
+    private void completeReward(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double totalReward,
+                                long startTime, long economyStart, EconomyGateway.Result result,
+                                RewardEvents.DepositIssued depositEvent) {
+        try {
+            if (isTracked(startTime)) {
+                metricsManager.recordPhase(RewardPhase.ECONOMY, type, economyStart);
+            }
+            if (depositEvent != null) {
+                depositEvent.end();
+                if (depositEvent.shouldCommit()) {
+                    depositEvent.entityType = type.name();
+                    depositEvent.player = killer.getName();
+                    depositEvent.amount = totalReward;
+                    depositEvent.result = result.name();
+                    depositEvent.success = result == EconomyGateway.Result.SUCCESS;
+                    depositEvent.batched = depositBatcher != null;
+                    depositEvent.commit();
+                }
+            }
+
+            if (result == EconomyGateway.Result.FAILED) {
+                logger.warning(String.format("經濟操作失敗：玩家=%s, 金額=%f",
+                    killer.getName(), totalReward));
+                return;
+            }
+            if (result == EconomyGateway.Result.ABANDONED) {
+                abandonReward(killer, type, totalReward);
+                return;
+            }
+
+            if (isTracked(startTime)) {
+                processedCount.increment();
+                metricsManager.recordRewarded(type, totalReward);
+                metricsManager.endTracking(startTime);
+            } else if (isTracking()) {
+                metricsManager.recordPaid(type, totalReward);
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, String.format(
+                "處理經濟操作時發生錯誤：玩家=%s, 金額=%f", killer.getName(), totalReward), e);
+            return;
+        }
+
+        taskDispatcher.runForPlayer(killer, () -> {
+            long messageStart = isTracked(startTime) ? metricsManager.startTracking() : 0;
+            RewardEvents.MessageSent messageEvent = RewardEvents.beginMessage();
+            sendRewardMessage(killer, mobConfig, totalReward);
+            if (messageStart != 0) {
+                metricsManager.recordPhase(RewardPhase.MESSAGE, type, messageStart);
+            }
+            if (messageEvent != null) {
+                messageEvent.end();
+                if (messageEvent.shouldCommit()) {
+                    messageEvent.entityType = type.name();
+                    messageEvent.player = killer.getName();
+                    messageEvent.amount = totalReward;
+                    messageEvent.coalesced = rewardNotifier != null;
+                    messageEvent.commit();
+                }
+            }
+        }, () -> traceBuffer.record(TraceEvent.PLAYER_OFFLINE, killer, type, totalReward, 0));
+    }
+
+    private void abandonReward(Player killer, EntityType type, double totalReward) {
+        String message;
+        if (rewardJournal != null) {
+            logger.warning(String.format("獎勵已保留於日誌，將於重啟後補發：玩家=%s, 金額=%f", killer.getName(), totalReward));
+            message = "§7｜§6系統§7｜§f飯娘：§7經濟系統暫時無法使用，獎勵 §e%s §7將於伺服器重啟後補發！";
+        } else {
+            logger.warning(String.format("獎勵未能發放：玩家=%s, 金額=%f", killer.getName(), totalReward));
+            message = "§7｜§6系統§7｜§f飯娘：§7經濟系統暫時無法使用，獎勵 §e%s §7未能發放！";
+        }
+        String formatted = String.format(message, MessageTemplate.formatAmount(totalReward));
+        taskDispatcher.runForPlayer(killer, () -> killer.sendMessage(formatted),
+            () -> traceBuffer.record(TraceEvent.PLAYER_OFFLINE, killer, type, totalReward, 0));
+    }
+
+    private void sendRewardMessage(Player killer, ConfigManager.MobConfig mobConfig, double totalReward) {
+        if (rewardNotifier != null) {
+            rewardNotifier.add(killer, mobConfig, totalReward);
+            return;
+        }
+
+        net.kyori.adventure.text.Component component = mobConfig.rewardMessage.render(MessageTemplate.formatAmount(totalReward));
+        if (configManager.isShowMessageInActionBar()) {
+            killer.sendActionBar(component);
+        } else {
+            killer.sendMessage(component);
+        }
+    }
+}
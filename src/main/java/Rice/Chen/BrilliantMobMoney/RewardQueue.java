@@ -0,0 +1,227 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class RewardQueue {
+    public enum OverflowPolicy {
+        DROP,
+        SPILL,
+        DEFER
+    }
+
+    interface Sink {
+        void deliver(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double amount,
+                     Consumer<EconomyGateway.Result> onResolved, long startTime, long queuedAt);
+    }
+
+    private final Ring[] rings;
+    private final int stripeMask;
+    private final LongAdder deferred = new LongAdder();
+
+    public RewardQueue(int stripes, int capacity) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1);
+        int ringCapacity = Integer.highestOneBit(Math.max(16, capacity / stripeCount) * 2 - 1);
+        this.rings = new Ring[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        for (int i = 0; i < stripeCount; i++) {
+            rings[i] = new Ring(ringCapacity);
+        }
+    }
+
+    public boolean offer(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double amount,
+                         Consumer<EconomyGateway.Result> onResolved, long startTime, long queuedAt, boolean deferOnFull) {
+        Ring ring = rings[stripe()];
+        // 已有延後的獎勵時新獎勵也排在其後，維持先進先出
+        if (ring.overflow.isEmpty() && ring.offer(killer, type, mobConfig, amount, onResolved, startTime, queuedAt)) {
+            return true;
+        }
+        if (!deferOnFull) {
+            return false;
+        }
+        ring.overflow.add(new Deferred(killer, type, mobConfig, amount, onResolved, startTime, queuedAt));
+        deferred.increment();
+        return true;
+    }
+
+    public int stripes() {
+        return rings.length;
+    }
+
+    public int drain(int stripe, Sink sink, long budgetNanos) {
+        return drain(rings[stripe], sink, System.nanoTime() + budgetNanos, true);
+    }
+
+    // 關閉時使用，不設時間上限直到佇列清空
+    public int drainAll(Sink sink) {
+        int drained = 0;
+        for (Ring ring : rings) {
+            drained += drain(ring, sink, 0, false);
+        }
+        return drained;
+    }
+
+    private int drain(Ring ring, Sink sink, long deadline, boolean bounded) {
+        if (!ring.draining.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int drained = 0;
+            // 每次至少處理一筆，避免單筆過慢時佇列永遠無法前進；以差值比較避免 nanoTime 溢位
+            while (drained == 0 || !bounded || System.nanoTime() - deadline < 0) {
+                if (!ring.poll(sink)) {
+                    if (ring.size() > 0) {
+                        // 有生產者已取得位置但尚未寫入完成，等待它完成以免延後的獎勵插隊
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    Deferred next = ring.overflow.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    deferred.decrement();
+                    sink.deliver(next.killer, next.type, next.mobConfig, next.amount, next.onResolved, next.startTime, next.queuedAt);
+                }
+                drained++;
+            }
+            return drained;
+        } finally {
+            ring.draining.set(false);
+        }
+    }
+
+    public int size() {
+        long size = deferred.sum();
+        for (Ring ring : rings) {
+            size += ring.size();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    public long getDeferred() {
+        return deferred.sum();
+    }
+
+    private int stripe() {
+        if (stripeMask == 0) {
+            return 0;
+        }
+        int h = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+
+    private static class Ring {
+        private final AtomicLongArray sequences;
+        private final Player[] killers;
+        private final EntityType[] types;
+        private final ConfigManager.MobConfig[] mobConfigs;
+        private final double[] amounts;
+        private final Object[] callbacks;
+        private final long[] startTimes;
+        private final long[] queuedAts;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final Queue<Deferred> overflow = new ConcurrentLinkedQueue<>();
+        private volatile long head;
+
+        Ring(int capacity) {
+            sequences = new AtomicLongArray(capacity);
+            killers = new Player[capacity];
+            types = new EntityType[capacity];
+            mobConfigs = new ConfigManager.MobConfig[capacity];
+            amounts = new double[capacity];
+            callbacks = new Object[capacity];
+            startTimes = new long[capacity];
+            queuedAts = new long[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        // 序號等於位置時代表此格可寫入，等於位置 + 1 時代表已寫入完成可供讀取
+        private boolean offer(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double amount,
+                              Consumer<EconomyGateway.Result> onResolved, long startTime, long queuedAt) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        killers[index] = killer;
+                        types[index] = type;
+                        mobConfigs[index] = mobConfig;
+                        amounts[index] = amount;
+                        callbacks[index] = onResolved;
+                        startTimes[index] = startTime;
+                        queuedAts[index] = queuedAt;
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean poll(Sink sink) {
+            long position = head;
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                return false;
+            }
+            Player killer = killers[index];
+            EntityType type = types[index];
+            ConfigManager.MobConfig mobConfig = mobConfigs[index];
+            Consumer<EconomyGateway.Result> onResolved = (Consumer<EconomyGateway.Result>) callbacks[index];
+            double amount = amounts[index];
+            long startTime = startTimes[index];
+            long queuedAt = queuedAts[index];
+            killers[index] = null;
+            mobConfigs[index] = null;
+            callbacks[index] = null;
+            sequences.set(index, position + mask + 1);
+            head = position + 1;
+            sink.deliver(killer, type, mobConfig, amount, onResolved, startTime, queuedAt);
+            return true;
+        }
+
+        private long size() {
+            return Math.max(0, tail.get() - head);
+        }
+    }
+
+    private static class Deferred {
+        private final Player killer;
+        private final EntityType type;
+        private final ConfigManager.MobConfig mobConfig;
+        private final double amount;
+        private final Consumer<EconomyGateway.Result> onResolved;
+        private final long startTime;
+        private final long queuedAt;
+
+        Deferred(Player killer, EntityType type, ConfigManager.MobConfig mobConfig, double amount,
+                 Consumer<EconomyGateway.Result> onResolved, long startTime, long queuedAt) {
+            this.killer = killer;
+            this.type = type;
+            this.mobConfig = mobConfig;
+            this.amount = amount;
+            this.onResolved = onResolved;
+            this.startTime = startTime;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+public class RewardRateLimiter {
+    private final ConfigManager configManager;
+    private final TokenBucketTable players = new TokenBucketTable();
+    private final TokenBucketTable chunks = new TokenBucketTable();
+
+    public RewardRateLimiter(ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+
+    public boolean tryAcquireChunk(Entity entity) {
+        double chunkBurst = configManager.getRateLimitChunkBurst();
+        if (chunkBurst <= 0) {
+            return true;
+        }
+        return chunks.tryAcquire(chunkKey(entity.getLocation()), chunkBurst, configManager.getRateLimitChunkPerSecond());
+    }
+
+    public boolean tryAcquirePlayer(Player player) {
+        double playerBurst = configManager.getRateLimitPlayerBurst();
+        if (playerBurst <= 0) {
+            return true;
+        }
+        UUID uuid = player.getUniqueId();
+        return players.tryAcquire(uuid.getMostSignificantBits() * 31 + uuid.getLeastSignificantBits(),
+            playerBurst, configManager.getRateLimitPlayerPerSecond());
+    }
+
+    public int evictIdle() {
+        return players.evictIdle(configManager.getRateLimitPlayerBurst(), configManager.getRateLimitPlayerPerSecond())
+            + chunks.evictIdle(configManager.getRateLimitChunkBurst(), configManager.getRateLimitChunkPerSecond());
+    }
+
+    public int getTrackedPlayers() {
+        return players.size();
+    }
+
+    public int getTrackedChunks() {
+        return chunks.size();
+    }
+
+    public void clear() {
+        players.clear();
+        chunks.clear();
+    }
+
+    private static long chunkKey(Location location) {
+        UUID world = location.getWorld().getUID();
+        long chunk = ((long) (location.getBlockX() >> 4) << 32) | ((location.getBlockZ() >> 4) & 0xFFFFFFFFL);
+        return chunk ^ (world.getMostSignificantBits() * 31 + world.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,18 @@
+package Rice.Chen.BrilliantMobMoney;
+
+public enum SkipReason {
+    UNCONFIGURED("unconfigured"),
+    NO_KILLER("no_killer"),
+    DUPLICATE("duplicate"),
+    CHANCE("chance"),
+    RATE_LIMITED("rate_limited"),
+    SPAWN_REASON("spawn_reason"),
+    ZERO_REWARD("zero_reward"),
+    QUEUE_FULL("queue_full");
+
+    public final String key;
+
+    SkipReason(String key) {
+        this.key = key;
+    }
+}
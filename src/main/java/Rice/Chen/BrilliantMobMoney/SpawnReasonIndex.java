@@ -0,0 +1,139 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SpawnReasonIndex {
+    private static final int SEGMENTS = 64;
+    private static final int MIN_SEGMENT_ENTRIES = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder overflows = new LongAdder();
+
+    public SpawnReasonIndex(int maxEntries) {
+        int perSegment = Integer.highestOneBit(Math.max(MIN_SEGMENT_ENTRIES, (maxEntries + SEGMENTS - 1) / SEGMENTS) - 1) << 1;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public void put(int entityId, int reason) {
+        int hash = mix(entityId);
+        Segment segment = segments[hash >>> 26];
+        boolean stored;
+        synchronized (segment) {
+            stored = segment.put(entityId, hash, (byte) (reason + 1));
+        }
+        if (!stored) {
+            overflows.increment();
+        }
+    }
+
+    public int remove(int entityId) {
+        int hash = mix(entityId);
+        Segment segment = segments[hash >>> 26];
+        synchronized (segment) {
+            return segment.remove(entityId, hash) - 1;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private static class Segment {
+        private final int[] keys;
+        private final byte[] values;
+        private final int mask;
+        private final int limit;
+        private int size;
+
+        Segment(int maxEntries) {
+            keys = new int[maxEntries * 2];
+            values = new byte[maxEntries * 2];
+            mask = keys.length - 1;
+            limit = maxEntries;
+        }
+
+        private boolean put(int key, int hash, byte value) {
+            int index = hash & mask;
+            while (values[index] != 0) {
+                if (keys[index] == key) {
+                    values[index] = value;
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            if (size >= limit) {
+                return false;
+            }
+            keys[index] = key;
+            values[index] = value;
+            size++;
+            return true;
+        }
+
+        private int remove(int key, int hash) {
+            int index = hash & mask;
+            while (values[index] != 0) {
+                if (keys[index] == key) {
+                    int value = values[index];
+                    shiftBack(index);
+                    size--;
+                    return value;
+                }
+                index = (index + 1) & mask;
+            }
+            return 0;
+        }
+
+        private void shiftBack(int hole) {
+            int index = hole;
+            while (true) {
+                index = (index + 1) & mask;
+                if (values[index] == 0) {
+                    break;
+                }
+                int home = mix(keys[index]) & mask;
+                // 只有當原本的位置不在 (hole, index] 之間時，才能往前補上空位
+                boolean movable = hole <= index ? home <= hole || home > index : home <= hole && home > index;
+                if (movable) {
+                    keys[hole] = keys[index];
+                    values[hole] = values[index];
+                    hole = index;
+                }
+            }
+            values[hole] = 0;
+        }
+
+        private void clear() {
+            Arrays.fill(values, (byte) 0);
+            size = 0;
+        }
+    }
+}
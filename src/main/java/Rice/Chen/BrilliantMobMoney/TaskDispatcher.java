@@ -0,0 +1,15 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.Player;
+
+public interface TaskDispatcher {
+    void runForPlayer(Player player, Runnable task, Runnable retired);
+
+    void runForPlayerLater(Player player, Runnable task, Runnable retired, long delayTicks);
+
+    void runEconomy(Runnable task);
+
+    void runEconomyTimer(Runnable task, long periodTicks);
+
+    void runAsyncTimer(Runnable task, long periodTicks);
+}
@@ -0,0 +1,147 @@
+package Rice.Chen.BrilliantMobMoney;
+
+public class TokenBucketTable {
+    private static final int SEGMENTS = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long origin = System.nanoTime();
+
+    public TokenBucketTable() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(INITIAL_SEGMENT_CAPACITY);
+        }
+    }
+
+    public boolean tryAcquire(long key, double burst, double perSecond) {
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> 58)];
+        synchronized (segment) {
+            return segment.tryAcquire(key, (int) hash, burst, perSecond / 1_000_000_000.0, now());
+        }
+    }
+
+    public int evictIdle(double burst, double perSecond) {
+        long now = now();
+        double perNano = perSecond / 1_000_000_000.0;
+        int evicted = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                evicted += segment.evictIdle(burst, perNano, now);
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.reset(INITIAL_SEGMENT_CAPACITY);
+            }
+        }
+    }
+
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    private static class Segment {
+        private long[] keys;
+        private double[] tokens;
+        private long[] updated;
+        private int mask;
+        private int size;
+
+        Segment(int capacity) {
+            reset(capacity);
+        }
+
+        private void reset(int capacity) {
+            keys = new long[capacity];
+            tokens = new double[capacity];
+            updated = new long[capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        private boolean tryAcquire(long key, int hash, double burst, double perNano, long now) {
+            int index = find(key, hash);
+            if (updated[index] == 0) {
+                if ((size + 1) * 4 > keys.length * 3) {
+                    rebuild(keys.length * 2, burst, perNano, now, false);
+                    index = find(key, hash);
+                }
+                keys[index] = key;
+                tokens[index] = burst;
+                updated[index] = now;
+                size++;
+            } else {
+                tokens[index] = Math.min(burst, tokens[index] + (now - updated[index]) * perNano);
+                updated[index] = now;
+            }
+
+            if (tokens[index] < 1) {
+                return false;
+            }
+            tokens[index] -= 1;
+            return true;
+        }
+
+        private int evictIdle(double burst, double perNano, long now) {
+            int before = size;
+            int capacity = keys.length;
+            while (capacity > INITIAL_SEGMENT_CAPACITY && before * 8 < capacity) {
+                capacity >>= 1;
+            }
+            rebuild(capacity, burst, perNano, now, true);
+            return before - size;
+        }
+
+        private void rebuild(int capacity, double burst, double perNano, long now, boolean dropFull) {
+            long[] oldKeys = keys;
+            double[] oldTokens = tokens;
+            long[] oldUpdated = updated;
+            reset(capacity);
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUpdated[i] == 0) {
+                    continue;
+                }
+                double refilled = Math.min(burst, oldTokens[i] + (now - oldUpdated[i]) * perNano);
+                if (dropFull && refilled >= burst) {
+                    continue;
+                }
+                int index = find(oldKeys[i], (int) mix(oldKeys[i]));
+                keys[index] = oldKeys[i];
+                tokens[index] = oldTokens[i];
+                updated[index] = oldUpdated[i];
+                size++;
+            }
+        }
+
+        private int find(long key, int hash) {
+            int index = hash & mask;
+            while (updated[index] != 0 && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+    }
+}
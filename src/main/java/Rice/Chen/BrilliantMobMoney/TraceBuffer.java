@@ -0,0 +1,129 @@
+package Rice.Chen.BrilliantMobMoney;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TraceBuffer {
+    private static final DateTimeFormatter TIME_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter FILE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private final ConfigManager configManager;
+    private final Path traceFolder;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLongArray sequences;
+    private final long[] times;
+    private final TraceEvent[] events;
+    private final EntityType[] entityTypes;
+    private final String[] players;
+    private final double[] values;
+    private final double[] limits;
+
+    public TraceBuffer(ConfigManager configManager, Path traceFolder, int size) {
+        this.configManager = configManager;
+        this.traceFolder = traceFolder;
+        int capacity = Integer.highestOneBit(Math.max(16, size) * 2 - 1);
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.times = new long[capacity];
+        this.events = new TraceEvent[capacity];
+        this.entityTypes = new EntityType[capacity];
+        this.players = new String[capacity];
+        this.values = new double[capacity];
+        this.limits = new double[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, -1);
+        }
+    }
+
+    public void record(TraceEvent event, Player player, EntityType type, double value, double limit) {
+        if (!configManager.isDebug() || !configManager.isTraced(player.getName(), type)) {
+            return;
+        }
+        double sampleRate = configManager.getTraceSampleRate();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        sequences.set(slot, -1);
+        // 先讓其他執行緒看到此格正在寫入，之後的一般寫入不可提前到標記之前
+        VarHandle.releaseFence();
+        times[slot] = System.currentTimeMillis();
+        events[slot] = event;
+        entityTypes[slot] = type;
+        players[slot] = player.getName();
+        values[slot] = value;
+        limits[slot] = limit;
+        sequences.lazySet(slot, sequence);
+    }
+
+    public long getRecorded() {
+        return cursor.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public CompletableFuture<Path> dump() {
+        return CompletableFuture.supplyAsync(() -> {
+            Path file = traceFolder.resolve("trace-" + FILE_FORMAT.format(Instant.now()) + ".log");
+            long end = cursor.get();
+            long start = Math.max(0, end - capacity());
+            try {
+                Files.createDirectories(traceFolder);
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (long sequence = start; sequence < end; sequence++) {
+                        String line = read(sequence);
+                        if (line != null) {
+                            out.write(line);
+                            out.newLine();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("無法寫入追蹤檔案：" + file, e);
+            }
+            return file;
+        });
+    }
+
+    private String read(long sequence) {
+        int slot = (int) (sequence & mask);
+        if (sequences.get(slot) != sequence) {
+            return null;
+        }
+        long time = times[slot];
+        TraceEvent event = events[slot];
+        EntityType type = entityTypes[slot];
+        String player = players[slot];
+        double value = values[slot];
+        double limit = limits[slot];
+        // 確保上面的一般讀取都在再次檢查序號之前完成，序號不變才代表讀到的是同一筆紀錄
+        VarHandle.acquireFence();
+        if (sequences.get(slot) != sequence) {
+            return null;
+        }
+        return String.format("%s %s(%s) 玩家=%s 實體=%s 數值=%.2f 門檻=%.2f",
+            TIME_FORMAT.format(Instant.ofEpochMilli(time)), event.name(), event.displayName, player, type, value, limit);
+    }
+}
@@ -0,0 +1,18 @@
+package Rice.Chen.BrilliantMobMoney;
+
+public enum TraceEvent {
+    DUPLICATE("跳過重複的實體"),
+    CHANCE_FAILED("未通過機率檢查"),
+    RATE_LIMITED("超過獎勵頻率限制"),
+    SPAWN_REASON("生成原因的獎勵倍率為零"),
+    ZERO_REWARD("獎勵金額為零或負數"),
+    REWARD_QUEUED("準備給予獎勵"),
+    QUEUE_FULL("獎勵佇列已滿，放棄獎勵"),
+    PLAYER_OFFLINE("玩家已離線，略過獎勵訊息");
+
+    public final String displayName;
+
+    TraceEvent(String displayName) {
+        this.displayName = displayName;
+    }
+}